@@ -0,0 +1,49 @@
+package scrabble;
+
+/** Keeps only the highest-scoring move. Of several moves with that score, the first one found is kept. */
+public final class BestMoveConsumer implements MoveConsumer {
+
+    private final char[] word = new char[Board.WIDTH];
+
+    private int length;
+
+    private int row;
+
+    private int column;
+
+    private Location direction;
+
+    private int score = Integer.MIN_VALUE;
+
+    @Override
+    public void accept(char[] word, int length, int row, int column, Location direction, int score) {
+        if (score > this.score) {
+            System.arraycopy(word, 0, this.word, 0, length);
+            this.length = length;
+            this.row = row;
+            this.column = column;
+            this.direction = direction;
+            this.score = score;
+        }
+    }
+
+    /** Returns the best move so far, or null if there has been none. */
+    public ScoredMove getBest() {
+        if (direction == null) {
+            return null;
+        }
+        return new ScoredMove(word, length, row, column, direction, score);
+    }
+
+    /** Returns the score of the best move so far, or Integer.MIN_VALUE if there has been none. */
+    public int getScore() {
+        return score;
+    }
+
+    /** Forgets every move so far, so that this consumer can be used again. */
+    public void clear() {
+        direction = null;
+        score = Integer.MIN_VALUE;
+    }
+
+}
@@ -1,8 +1,8 @@
 package scrabble;
 
-import edu.princeton.cs.algs4.In;
-
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Scrabble board, maintaining bag, players' hands, and other game logic.
@@ -14,6 +14,10 @@ import java.util.*;
  * Each bag/hand tile is either a lower-case letter (a regular tile) or _ (an unplayed blank).
  *
  * Words submitted consist of letters (upper-case for played blanks) and spaces (existing tiles on the board).
+ *
+ * Besides Locations, squares can be addressed by number, row * WIDTH + column (see squareAt). Consecutive squares in a
+ * direction are step(direction) apart. The scoring and legality checks work on these numbers internally, so checking
+ * and scoring a move allocates nothing, given a word, Locations and a Rack that already exist.
  */
 public class Board {
 
@@ -35,11 +39,32 @@ public class Board {
     /** Symbol for a regular square. */
     public static final char NO_PREMIUM = ' ';
 
-    /** Set of legal words. */
-    private static final HashSet<String> DICTIONARY = new HashSet<>();
+    /** Result of checkLegality for a legal move. */
+    public static final int LEGAL = 0;
+
+    /** Result of checkLegality (or tryScore): the word is shorter than two letters. */
+    public static final int TOO_SHORT = -1;
+
+    /** Result of checkLegality (or tryScore): the word places no tile. */
+    public static final int NO_NEW_TILE = -2;
+
+    /** Result of checkLegality (or tryScore): the hand lacks some of the tiles. */
+    public static final int NOT_IN_HAND = -3;
+
+    /**
+     * Result of checkLegality (or tryScore): the word overlaps tiles, leaves gaps, touches tiles at either end, or
+     * runs off the board.
+     */
+    public static final int BAD_PLACEMENT = -4;
+
+    /** Result of checkLegality (or tryScore): the word touches no tile and misses the center. */
+    public static final int NOT_CONNECTED = -5;
+
+    /** Result of checkLegality (or tryScore): the word or some cross word is not in the dictionary. */
+    public static final int INVALID_WORD = -6;
 
-    /** Associates tiles with their values. */
-    public static final Map<Character, Integer> TILE_VALUES = new HashMap<>();
+    /** Associates tiles with their values. Read-only; Board itself scores from a primitive table (see valueOf). */
+    public static final Map<Character, Integer> TILE_VALUES;
 
     /**
      * Initial layout of bonus squares.
@@ -61,48 +86,122 @@ public class Board {
             " +   =   =   + ",
             "#  -   #   -  #"};
 
+    /** Value of each tile character, indexed by the character; 0 for blanks (played or not) and non-tiles. */
+    static final int[] VALUES = new int[128];
+
+    /** Letter multiplier of each square (numbered row * WIDTH + column) in LAYOUT. */
+    static final int[] LETTER_MULTIPLIERS = new int[WIDTH * WIDTH];
+
+    /** Word multiplier of each square (numbered row * WIDTH + column) in LAYOUT. */
+    static final int[] WORD_MULTIPLIERS = new int[WIDTH * WIDTH];
+
+    /** Premium symbol of each square (numbered row * WIDTH + column) in LAYOUT. Never modified. */
+    private static final char[] PREMIUMS = new char[WIDTH * WIDTH];
+
+    /** Scratch space for score(String, ...), so that it need not allocate. */
+    private static final ThreadLocal<char[]> WORD_BUFFER = ThreadLocal.withInitial(() -> new char[WIDTH]);
+
+    /** Bit mask with one bit for each square of a row or column. */
+    private static final int FULL_LINE = (1 << WIDTH) - 1;
+
+    /**
+     * Zobrist keys: SQUARE_KEYS[square * 52 + i] is for a tile on square, where i is 0-25 for 'a'-'z' and 26-51 for
+     * played blanks 'A'-'Z'.
+     */
+    private static final long[] SQUARE_KEYS = new long[WIDTH * WIDTH * 52];
+
+    /** Zobrist key for player 1 being the one to move. */
+    private static final long SIDE_KEY;
+
+    /** Tiles in the bag at the start of a game. */
+    static final String ALL_TILES =
+            "aaaaaaaaabbccddddeeeeeeeeeeeeffggghhiiiiiiiiijkllllmmnnnnnnooooooooppqrrrrrrssssttttttuuuuvvwwxyyz__";
+
     // A static block like this is called once when the class is loaded. It is useful for initializing complex
     // static fields.
     static {
-        // Load dictionary
-        In in = new In("words.txt");
-        for (String word : in.readAllLines()) {
-            DICTIONARY.add(word);
-        }
         // Initialize tile values
+        Map<Character, Integer> values = new HashMap<>();
         for (char c : "eaionrtlsu".toCharArray()) {
-            TILE_VALUES.put(c, 1);
+            values.put(c, 1);
         }
         for (char c : "dg".toCharArray()) {
-            TILE_VALUES.put(c, 2);
+            values.put(c, 2);
         }
         for (char c : "bcmp".toCharArray()) {
-            TILE_VALUES.put(c, 3);
+            values.put(c, 3);
         }
         for (char c : "fhvwy".toCharArray()) {
-            TILE_VALUES.put(c, 4);
+            values.put(c, 4);
         }
-        TILE_VALUES.put('k', 5);
+        values.put('k', 5);
         for (char c : "jx".toCharArray()) {
-            TILE_VALUES.put(c, 8);
+            values.put(c, 8);
         }
         for (char c : "qz".toCharArray()) {
-            TILE_VALUES.put(c, 10);
+            values.put(c, 10);
         }
         for (char c = 'A'; c <= 'Z'; c++) {
-            TILE_VALUES.put(c, 0);
+            values.put(c, 0);
+        }
+        values.put('_', 0);
+        for (Map.Entry<Character, Integer> entry : values.entrySet()) {
+            VALUES[entry.getKey()] = entry.getValue();
+        }
+        TILE_VALUES = Collections.unmodifiableMap(values);
+        // Initialize premium multipliers
+        for (int square = 0; square < WIDTH * WIDTH; square++) {
+            char premium = LAYOUT[square / WIDTH].charAt(square % WIDTH);
+            PREMIUMS[square] = premium;
+            LETTER_MULTIPLIERS[square] = premium == DOUBLE_LETTER_SCORE ? 2 : premium == TRIPLE_LETTER_SCORE ? 3 : 1;
+            WORD_MULTIPLIERS[square] = premium == DOUBLE_WORD_SCORE ? 2 : premium == TRIPLE_WORD_SCORE ? 3 : 1;
         }
-        TILE_VALUES.put('_', 0);
+        // Initialize hash keys, from a fixed seed so that hashes are the same from run to run
+        Random random = new Random(0x5A6F6272697374L);
+        for (int i = 0; i < SQUARE_KEYS.length; i++) {
+            SQUARE_KEYS[i] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
     }
 
-    /** Squares on the board (whether occupied by tiles or not). */
-    private char[][] squares;
+    /** Tile on each square (numbered row * WIDTH + column), or NO_TILE. */
+    private char[] tiles;
+
+    /** Marks an empty square in tiles. */
+    private static final char NO_TILE = 0;
+
+    /** For each row, one bit per occupied square: bit c is set if there is a tile in column c. */
+    private int[] rowOccupancy;
+
+    /** For each column, one bit per occupied square: bit r is set if there is a tile in row r. */
+    private int[] columnOccupancy;
+
+    /**
+     * True if tiles, rowOccupancy and columnOccupancy are shared with a BoardSnapshot, and so must be copied before
+     * they are changed.
+     */
+    private boolean squaresShared;
+
+    /** XOR of the SQUARE_KEYS of every tile on the board, kept up to date as tiles come and go. */
+    private long squaresHash;
 
     /** Hands of the players. */
-    private List<Character>[] hands;
+    private Rack[] hands;
 
-    /** The bag of remaining tiles. */
-    private List<Character> bag;
+    /** The bag of remaining tiles; the next tile drawn is bag[bagSize - 1]. */
+    private char[] bag;
+
+    /** Number of tiles in the bag. */
+    private int bagSize;
+
+    /** Shuffles the bag; null in a Board forked from a snapshot, which uses ThreadLocalRandom instead. */
+    private final SplittableRandom random;
+
+    /** Every tile dealt so far, in order (see getDraws); null in a Board forked from a snapshot. */
+    private final StringBuilder draws;
+
+    /** Tiles to deal, in order, before going back to drawing from the bag (see replaying); null if none. */
+    private final String script;
 
     /** Scores of the players. */
     private int[] scores;
@@ -113,44 +212,200 @@ public class Board {
     /** Number of consecutive tile exchange turns; 2 ends the game. */
     private int numberOfPasses;
 
+    /** Number of moves applied by apply and not yet undone. */
+    private int appliedMoves;
+
+    /** Record of the move being applied by apply, or null if none is. */
+    private UndoRecord journal;
+
+    /** Creates a Board for a new game, with its own randomly seeded generator. */
     public Board() {
-        // Create squares on board
-        squares = new char[15][15];
-        for (int r = 0; r < squares.length; r++) {
-            for (int c = 0; c < squares.length; c++) {
-                squares[r][c] = LAYOUT[r].charAt(c);
-            }
-        }
+        this(new SplittableRandom());
+    }
+
+    /** Creates a Board for a new game whose bag is shuffled by a generator seeded with seed. */
+    public Board(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Creates a Board for a new game whose bag is shuffled by random. The same moves on Boards made with equally seeded
+     * generators draw the same tiles. The Board takes random over; use random.split() to give several Boards
+     * generators of their own from one seed.
+     */
+    public Board(SplittableRandom random) {
+        this(random, null);
+    }
+
+    /**
+     * Creates a Board for a new game that deals the tiles in draws, in order, starting with the first player's hand,
+     * whatever the order of the bag. Given the getDraws() of an earlier game, and the same moves, it replays that game
+     * exactly. Once draws runs out, tiles come from the bag as usual, shuffled by a generator with a fixed seed.
+     *
+     * A move that would deal a tile of draws that is no longer in the bag throws IllegalStateException. Undoing a move
+     * on such a Board restores the bag's contents, but not necessarily their order.
+     */
+    public static Board replaying(String draws) {
+        return new Board(new SplittableRandom(0), draws);
+    }
+
+    private Board(SplittableRandom random, String script) {
+        this.random = random;
+        this.script = script;
+        draws = new StringBuilder();
+        // Create empty board
+        tiles = new char[WIDTH * WIDTH];
+        rowOccupancy = new int[WIDTH];
+        columnOccupancy = new int[WIDTH];
         // Create bag
-        bag = new ArrayList<Character>();
-        for (char tile : "aaaaaaaaabbccddddeeeeeeeeeeeeffggghhiiiiiiiiijkllllmmnnnnnnooooooooppqrrrrrrssssttttttuuuuvvwwxyyz__".toCharArray()) {
-            bag.add(tile);
-        }
-        Collections.shuffle(bag);
+        bag = ALL_TILES.toCharArray();
+        bagSize = bag.length;
+        shuffleBag();
         // Deal initial hands
-        hands = new ArrayList[] {new ArrayList<Character>(), new ArrayList<Character>()};
+        hands = new Rack[] {new Rack(), new Rack()};
         deal(hands[0], 7);
         deal(hands[1], 7);
         // Initialize miscellaneous variables
         scores = new int[2];
     }
 
+    /**
+     * Creates a Board in the position saved in snapshot, sharing its squares until either changes them. Being meant
+     * for simulations, it shuffles with ThreadLocalRandom and does not record its draws.
+     */
+    Board(BoardSnapshot snapshot) {
+        tiles = snapshot.tiles;
+        rowOccupancy = snapshot.rowOccupancy;
+        columnOccupancy = snapshot.columnOccupancy;
+        squaresShared = true;
+        squaresHash = snapshot.squaresHash;
+        hands = new Rack[] {new Rack(snapshot.hands[0]), new Rack(snapshot.hands[1])};
+        bag = Arrays.copyOf(snapshot.bag, ALL_TILES.length());
+        bagSize = snapshot.bag.length;
+        random = null;
+        draws = null;
+        script = null;
+        scores = new int[] {snapshot.score0, snapshot.score1};
+        currentPlayer = snapshot.currentPlayer;
+        numberOfPasses = snapshot.numberOfPasses;
+    }
+
+    /**
+     * Returns an immutable copy of the current position, from which any number of threads may fork Boards. The
+     * squares are shared rather than copied; whichever of this Board and its forks changes them first copies them.
+     */
+    public BoardSnapshot snapshot() {
+        squaresShared = true;
+        return new BoardSnapshot(tiles, rowOccupancy, columnOccupancy, squaresHash, new Rack(hands[0]),
+                new Rack(hands[1]), Arrays.copyOf(bag, bagSize), scores[0], scores[1], currentPlayer, numberOfPasses);
+    }
+
+    /**
+     * Returns a 64-bit Zobrist hash of the tiles on the board (played blanks distinct from regular tiles) and the
+     * player to move. Equal positions have equal hashes; different ones almost never do. Takes constant time: the hash
+     * is updated as tiles are placed and removed, rather than computed from the squares.
+     */
+    public long getHash() {
+        return hash(squaresHash, currentPlayer);
+    }
+
+    /** Returns the hash of a position whose tiles hash to squaresHash, with currentPlayer to move. */
+    static long hash(long squaresHash, int currentPlayer) {
+        return currentPlayer == 0 ? squaresHash : squaresHash ^ SIDE_KEY;
+    }
+
+    /** Returns getHash combined with the contents of both hands, for caches that depend on the tiles players hold. */
+    public long getHashWithHands() {
+        // The odd multiplier keeps swapping the hands from leaving the hash unchanged
+        return getHash() ^ hands[0].getHash() ^ hands[1].getHash() * 0x9E3779B97F4A7C15L;
+    }
+
+    /** Returns the index of tile in a square's SQUARE_KEYS. */
+    private static int keyIndex(int square, char tile) {
+        return square * 52 + (tile >= 'a' ? tile - 'a' : 26 + tile - 'A');
+    }
+
+    /** Returns the number of tiles left in the bag. */
+    public int getBagSize() {
+        return bagSize;
+    }
+
+    /**
+     * Returns player's tiles to the bag, shuffles it with random, and deals player a new hand of the same size. Used by
+     * simulations to try out hands the opponent might hold.
+     */
+    public void redrawHand(int player, RandomGenerator random) {
+        Rack hand = hands[player];
+        int size = hand.size();
+        for (int i = 0; i < size; i++) {
+            bag[bagSize++] = hand.get(i);
+        }
+        hand.clear();
+        shuffleBag(random);
+        deal(hand, size);
+    }
+
+    /** Puts the tiles in the bag in random order, using this Board's generator. */
+    private void shuffleBag() {
+        // Not Collections.shuffle's shared Random, which threads contend for and which cannot be seeded per game
+        shuffleBag(random != null ? random : ThreadLocalRandom.current());
+    }
+
+    private void shuffleBag(RandomGenerator random) {
+        for (int i = bagSize - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            char tile = bag[i];
+            bag[i] = bag[j];
+            bag[j] = tile;
+        }
+    }
+
     /** Deals n tiles from the bag into hand. */
-    private void deal(List<Character> hand, int n) {
+    private void deal(Rack hand, int n) {
         for (int i = 0; i < n; i++) {
-            if (bag.isEmpty()) {
+            if (bagSize == 0) {
                 return; // No tile left to draw!
             }
-            hand.add(bag.remove(bag.size() - 1));
+            if (script != null && draws.length() < script.length()) {
+                moveToTop(script.charAt(draws.length()));
+            }
+            char tile = bag[--bagSize];
+            hand.addTile(tile);
+            if (journal != null) {
+                journal.dealt[journal.dealtCount++] = tile;
+            }
+            if (draws != null) {
+                draws.append(tile);
+            }
         }
     }
 
+    /** Swaps tile with the top tile of the bag, so that it is drawn next. */
+    private void moveToTop(char tile) {
+        for (int i = bagSize - 1; i >= 0; i--) {
+            if (bag[i] == tile) {
+                bag[i] = bag[bagSize - 1];
+                bag[bagSize - 1] = tile;
+                return;
+            }
+        }
+        throw new IllegalStateException("Replayed draw " + tile + " is not in the bag");
+    }
+
+    /**
+     * Returns every tile dealt so far in this game, in order, starting with the first player's hand. Board.replaying
+     * can deal the same tiles again. Empty for a Board forked from a snapshot.
+     */
+    public String getDraws() {
+        return draws == null ? "" : draws.toString();
+    }
+
     /**
      * Returns player's hand.
      *
      * @param player Player number (0 or 1).
      */
-    public List<Character> getHand(int player) {
+    public Rack getHand(int player) {
         return hands[player];
     }
 
@@ -165,41 +420,21 @@ public class Board {
 
     @Override
     public String toString() {
-        String result = "";
-        for (int r = 0; r < squares.length; r++) {
-            for (int c = 0; c < squares.length; c++) {
-                result += squares[r][c];
+        StringBuilder result = new StringBuilder();
+        for (int r = 0; r < WIDTH; r++) {
+            for (int c = 0; c < WIDTH; c++) {
+                result.append(getSquare(squareAt(r, c)));
             }
-            result += "\n";
+            result.append("\n");
         }
-        return result;
+        return result.toString();
     }
 
     /**
      * Returns true if word can be played from the tiles available in hand.
      */
-    public boolean canBeDrawnFromHand(String word, List<Character> hand) {
-        boolean[] used = new boolean[hand.size()];
-        for (char c : word.toCharArray()) {
-            if (c == ' ') {
-                continue;
-            }
-            boolean found = false;
-            for (int i = 0; i < hand.size(); i++) {
-                if (!used[i]) {
-                    char tile = hand.get(i);
-                    if (c == tile || (Character.isUpperCase(c) && (tile == '_'))) {
-                        used[i] = true;
-                        found = true;
-                        break;
-                    }
-                }
-            }
-            if (!found) {
-                return false;
-            }
-        }
-        return true;
+    public boolean canBeDrawnFromHand(String word, Rack hand) {
+        return hand.canSupply(word);
     }
 
     /**
@@ -207,54 +442,125 @@ public class Board {
      * leaving no gaps, having no tiles right before or after it, and not extending beyond the edge of the board.
      */
     public boolean canBePlacedOnBoard(String word, Location location, Location direction) {
-        // Check for tile right before word
-        Location before = location.antineighbor(direction);
-        if (before.isOnBoard() && isOccupied(before)) {
+        if (!location.isOnBoard()) {
             return false;
         }
-        // Check squares within word
-        for (char c : word.toCharArray()) {
-            if (!location.isOnBoard()) { // Off edge of board
-                return false;
-            }
-            char current = getSquare(location);
-            if ((c == ' ') != (Character.isAlphabetic(current))) {
-                // Tile played on top of existing tile or gap in word where there is no tile
-                return false;
-            }
-            location = location.neighbor(direction);
-        }
-        // Check for tile right after word
-        if (location.isOnBoard() && isOccupied(location)) {
+        boolean horizontal = direction.getRow() == 0;
+        int start = horizontal ? location.getColumn() : location.getRow();
+        if (start + word.length() > WIDTH) { // Off edge of board
             return false;
         }
-        // No problems!
-        return true;
+        int line = horizontal ? rowOccupancy[location.getRow()] : columnOccupancy[location.getColumn()];
+        // The tiles already in the line from just before the word to just after it must be exactly its spaces
+        int span = (((1 << word.length()) - 1) << start) | surroundings(start, word.length());
+        return (line & span) == spaces(word) << start;
+    }
+
+    /** Returns the bits for the squares right before and right after a span of length squares at start. */
+    private static int surroundings(int start, int length) {
+        return ((1 << (start + length)) | (1 << start >> 1)) & FULL_LINE;
+    }
+
+    /** Returns a mask with bit i set if word has a space at index i. */
+    private static int spaces(String word) {
+        int result = 0;
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) == ' ') {
+                result |= 1 << i;
+            }
+        }
+        return result;
     }
 
     /**
      * Returns the letter or symbol at location.
      */
     public char getSquare(Location location) {
-        return squares[location.getRow()][location.getColumn()];
+        return getSquare(squareAt(location.getRow(), location.getColumn()));
     }
 
     /**
-     * Sets the letter or symbol at location.
+     * Returns the letter or symbol on square (numbered as by squareAt).
      */
-    private void setSquare(char tile, Location location) {
-        squares[location.getRow()][location.getColumn()] = tile;
+    public char getSquare(int square) {
+        return tiles[square] != NO_TILE ? tiles[square] : PREMIUMS[square];
+    }
+
+    /**
+     * Puts tile on the (empty) square.
+     */
+    private void setSquare(char tile, int square) {
+        if (squaresShared) {
+            unshareSquares();
+        }
+        tiles[square] = tile;
+        squaresHash ^= SQUARE_KEYS[keyIndex(square, tile)];
+        rowOccupancy[square / WIDTH] |= 1 << (square % WIDTH);
+        columnOccupancy[square % WIDTH] |= 1 << (square / WIDTH);
+        if (journal != null) {
+            journal.squares[journal.squareCount++] = square;
+        }
+    }
+
+    /** Gives this Board its own copies of the squares, which it has been sharing with a BoardSnapshot. */
+    private void unshareSquares() {
+        tiles = tiles.clone();
+        rowOccupancy = rowOccupancy.clone();
+        columnOccupancy = columnOccupancy.clone();
+        squaresShared = false;
+    }
+
+    /** Removes the tile from square. */
+    private void clearSquare(int square) {
+        if (squaresShared) {
+            unshareSquares();
+        }
+        squaresHash ^= SQUARE_KEYS[keyIndex(square, tiles[square])];
+        tiles[square] = NO_TILE;
+        rowOccupancy[square / WIDTH] &= ~(1 << (square % WIDTH));
+        columnOccupancy[square % WIDTH] &= ~(1 << (square / WIDTH));
+    }
+
+    /** Returns the number of the square at row and column, from 0 (top left) to WIDTH * WIDTH - 1. */
+    public static int squareAt(int row, int column) {
+        return row * WIDTH + column;
+    }
+
+    /** Returns the difference between the numbers of consecutive squares in direction (1 or WIDTH). */
+    public static int step(Location direction) {
+        return direction.getRow() == 0 ? 1 : WIDTH;
+    }
+
+    /** Returns true if the square after square, step away along the same row or column, is on the board. */
+    private static boolean hasNext(int square, int step) {
+        return step == 1 ? square % WIDTH < WIDTH - 1 : square < WIDTH * (WIDTH - 1);
+    }
+
+    /** Returns true if the square before square, step away along the same row or column, is on the board. */
+    private static boolean hasPrevious(int square, int step) {
+        return step == 1 ? square % WIDTH > 0 : square >= WIDTH;
+    }
+
+    /** Returns the occupied squares in row, as a mask with bit c set if there is a tile in column c. */
+    public int getRowOccupancy(int row) {
+        return rowOccupancy[row];
+    }
+
+    /** Returns the occupied squares in column, as a mask with bit r set if there is a tile in row r. */
+    public int getColumnOccupancy(int column) {
+        return columnOccupancy[column];
     }
 
     /**
      * Places word on board at the specified location and direction. Assumes this is legal.
      */
     public void placeWord(String word, Location location, Location direction) {
-        for (char c : word.toCharArray()) {
-            if (c != ' ') {
-                setSquare(c, location);
+        int square = squareAt(location.getRow(), location.getColumn());
+        int step = step(direction);
+        for (int i = 0; i < word.length(); i++, square += step) {
+            if (word.charAt(i) != ' ') {
+                setSquare(word.charAt(i), square);
             }
-            location = location.neighbor(direction);
         }
     }
 
@@ -263,25 +569,20 @@ public class Board {
      * word must contain an existing tile, be beside an existing tile, or contain the center.
      */
     public boolean wouldBeConnected(String word, Location location, Location direction) {
-        Location cross = direction.opposite();
-        for (char c : word.toCharArray()) {
-            if (c == ' ') {
-                return true;
-            }
-            if (location.equals(Location.CENTER)) {
-                return true;
-            }
-            Location after = location.neighbor(cross);
-            if (after.isOnBoard() && isOccupied(after)) {
-                return true;
-            }
-            Location before = location.antineighbor(cross);
-            if (before.isOnBoard() && isOccupied(before)) {
-                return true;
-            }
-            location = location.neighbor(direction);
+        if (!location.isOnBoard()) {
+            return false;
         }
-        return false;
+        boolean horizontal = direction.getRow() == 0;
+        int line = horizontal ? location.getRow() : location.getColumn();
+        int start = horizontal ? location.getColumn() : location.getRow();
+        int span = (((1 << Math.min(word.length(), WIDTH - start)) - 1) << start);
+        int[] occupancy = horizontal ? rowOccupancy : columnOccupancy;
+        int beside = (line > 0 ? occupancy[line - 1] : 0) | (line < WIDTH - 1 ? occupancy[line + 1] : 0);
+        int center = 0;
+        if (horizontal ? line == Location.CENTER.getRow() : line == Location.CENTER.getColumn()) {
+            center = 1 << (horizontal ? Location.CENTER.getColumn() : Location.CENTER.getRow());
+        }
+        return spaces(word) != 0 || (span & (beside | center)) != 0;
     }
 
     /**
@@ -294,6 +595,14 @@ public class Board {
         return location.neighbor(direction);
     }
 
+    /** Returns the number of the first square of the run of tiles ending just before square, or square itself. */
+    private int startOfWord(int square, int step) {
+        while (hasPrevious(square, step) && isOccupied(square - step)) {
+            square -= step;
+        }
+        return square;
+    }
+
     /**
      * Returns true if the cross word including (but not necessarily starting with) location forms a valid dictionary
      * word, or no new cross word was formed at this point.
@@ -301,27 +610,42 @@ public class Board {
      * @param tile The one tile played in this word.
      */
     public boolean isValidWord(Location location, Location direction, char tile) {
+        return isValidCrossWord(squareAt(location.getRow(), location.getColumn()), step(direction), tile);
+    }
+
+    /** Like isValidWord(Location, Location, char), with the cross word running step apart through square. */
+    private boolean isValidCrossWord(int square, int step, char tile) {
         if (tile == ' ') {
             return true; // Word was already on board
         }
-        location = findStartOfWord(location, direction);
-        String word = "";
-        boolean tileUsed = false;
-        while (location.isOnBoard()) {
-            if (isOccupied(location)) {
-                word += getSquare(location);
-            } else if (tileUsed) {
+        int start = startOfWord(square, step);
+        if (start == square && !(hasNext(square, step) && isOccupied(square + step))) {
+            return true; // One letter "cross word"
+        }
+        CompactDawg dawg = Lexicon.get().getDawg();
+        int node = dawg.root();
+        int edge = CompactDawg.NONE;
+        for (int s = start; ; s += step) {
+            char letter = s == square ? tile : tiles[s];
+            edge = findEdge(dawg, node, letter);
+            if (edge == CompactDawg.NONE) {
+                return false;
+            }
+            node = dawg.child(edge);
+            if (!hasNext(s, step) || (s + step != square && !isOccupied(s + step))) {
                 break;
-            } else {
-                word += tile;
-                tileUsed = true;
             }
-            location = location.neighbor(direction);
         }
-        if (word.length() == 1) {
-            return true;
+        return dawg.isWord(edge);
+    }
+
+    /** Returns the edge leaving node for letter (either case), or CompactDawg.NONE. */
+    private static int findEdge(CompactDawg dawg, int node, char letter) {
+        int index = Character.toLowerCase(letter) - 'a';
+        if (index < 0 || index >= 26) {
+            return CompactDawg.NONE;
         }
-        return DICTIONARY.contains(word.toLowerCase());
+        return dawg.findEdge(node, index);
     }
 
     /**
@@ -331,21 +655,33 @@ public class Board {
         if (word.length() < 2) {
             return false;
         }
-        char[] letters = new char[word.length()];
-        for (int i = 0; i < word.length(); i++) {
-            if (isOccupied(location)) {
-                letters[i] = getSquare(location);
-            } else {
-                letters[i] = word.charAt(i);
+        int step = step(direction);
+        int start = step == 1 ? location.getColumn() : location.getRow();
+        if (!location.isOnBoard() || start + word.length() > WIDTH) {
+            return false;
+        }
+        CompactDawg dawg = Lexicon.get().getDawg();
+        int node = dawg.root();
+        int edge = CompactDawg.NONE;
+        int square = squareAt(location.getRow(), location.getColumn());
+        for (int i = 0; i < word.length(); i++, square += step) {
+            edge = findEdge(dawg, node, isOccupied(square) ? tiles[square] : word.charAt(i));
+            if (edge == CompactDawg.NONE) {
+                return false;
             }
-            location = location.neighbor(direction);
+            node = dawg.child(edge);
         }
-        return DICTIONARY.contains(new String(letters).toLowerCase());
+        return dawg.isWord(edge);
     }
 
     /** Returns true if the square at location contains a tile. */
     public boolean isOccupied(Location location) {
-        return Character.isAlphabetic(getSquare(location));
+        return (rowOccupancy[location.getRow()] & (1 << location.getColumn())) != 0;
+    }
+
+    /** Returns true if square (numbered as by squareAt) contains a tile. */
+    public boolean isOccupied(int square) {
+        return tiles[square] != NO_TILE;
     }
 
     /** Returns true if word, played at location and direction, would create only legal words. */
@@ -353,126 +689,143 @@ public class Board {
         if (!isValidWord(word, location, direction)) {
             return false;
         }
-        Location cross = direction.opposite();
-        for (char c : word.toCharArray()) {
-            if (!isValidWord(location, cross, c)) {
+        int square = squareAt(location.getRow(), location.getColumn());
+        int step = step(direction);
+        int crossStep = step == 1 ? WIDTH : 1;
+        for (int i = 0; i < word.length(); i++, square += step) {
+            if (!isValidCrossWord(square, crossStep, word.charAt(i))) {
                 return false;
             }
-            location = location.neighbor(direction);
         }
         return true;
     }
 
     /**
-     * Returns the score for the cross word including (but not necessarily starting with) location.
-     *
-     * @param tile The one tile played in this word.
+     * Returns the score for the cross word, running step apart, through the empty square on which a tile worth
+     * points (after any letter multiplier) is played.
      */
-    private int scoreWord(Location location, Location direction, char tile) {
-        int score = 0;
-        int multiplier = 1;
-        location = findStartOfWord(location, direction);
-        if (location.neighbor(direction).isOnBoard() && !isOccupied(location.neighbor(direction))) {
+    private int scoreCrossWord(int square, int step, int points) {
+        int start = startOfWord(square, step);
+        if (start == square && !(hasNext(square, step) && isOccupied(square + step))) {
             // One letter "cross word"
             return 0;
         }
-        boolean tileUsed = false;
-        while (location.isOnBoard()) {
-            char square = getSquare(location);
-            if (isOccupied(location)) {
-                score += TILE_VALUES.get(square);
-            } else if (tileUsed) {
+        int score = points;
+        for (int s = start; ; s += step) {
+            if (s != square) {
+                score += VALUES[tiles[s]];
+            }
+            if (!hasNext(s, step) || (s + step != square && !isOccupied(s + step))) {
                 break;
-            } else {
-                score += TILE_VALUES.get(tile);
-                char bonus = getSquare(location);
-                if (bonus == DOUBLE_LETTER_SCORE) {
-                    score += TILE_VALUES.get(tile);
-                } else if (bonus == TRIPLE_LETTER_SCORE) {
-                    score += 2 * TILE_VALUES.get(tile);
-                } else if (bonus == DOUBLE_WORD_SCORE) {
-                    multiplier *= 2;
-                } else if (bonus == TRIPLE_WORD_SCORE) {
-                    multiplier *= 3;
-                }
-                tileUsed = true;
             }
-            location = location.neighbor(direction);
         }
-        return score * multiplier;
+        return score * WORD_MULTIPLIERS[square];
+    }
+
+    /** Returns the score for playing word at location in direction, including any cross words. */
+    public int score(String word, Location location, Location direction) {
+        char[] letters = word.length() <= WIDTH ? WORD_BUFFER.get() : new char[word.length()];
+        word.getChars(0, word.length(), letters, 0);
+        return score(letters, word.length(), location.getRow(), location.getColumn(), direction);
     }
 
-    /** Returns the points scored for word, played at location in direction. */
-    private int scoreWord(String word, Location location, Location direction) {
+    /**
+     * Returns the score for playing word[0] through word[length - 1] from row, column in direction, including any
+     * cross words. The word is in the same form as for score(String, Location, Location). Assumes the play is legal.
+     */
+    public int score(char[] word, int length, int row, int column, Location direction) {
+        int square = squareAt(row, column);
+        int step = step(direction);
+        int crossStep = step == 1 ? WIDTH : 1;
         int result = 0;
         int multiplier = 1;
-        for (char c : word.toCharArray()) {
-            char square = getSquare(location);
+        int crossWords = 0;
+        int tilesPlayed = 0;
+        for (int i = 0; i < length; i++, square += step) {
+            char c = word[i];
             if (c == ' ') {
-                result += TILE_VALUES.get(square);
+                result += VALUES[tiles[square]];
             } else {
-                result += TILE_VALUES.get(c);
-                if (square == DOUBLE_LETTER_SCORE) {
-                    result += TILE_VALUES.get(c);
-                } else if (square == TRIPLE_LETTER_SCORE) {
-                    result += 2 * TILE_VALUES.get(c);
-                } else if (square == DOUBLE_WORD_SCORE) {
-                    multiplier *= 2;
-                } else if (square == TRIPLE_WORD_SCORE) {
-                    multiplier *= 3;
-                }
-            }
-            location = location.neighbor(direction);
-        }
-        result *= multiplier;
-        return result;
-    }
-
-    /** Returns the score for playing word at location in direction, including any cross words. */
-    public int score(String word, Location location, Location direction) {
-        // Score word submitted
-        int result = scoreWord(word, location, direction);
-        int tilesPlayed = 0;
-        // Score cross words
-        for (char c : word.toCharArray()) {
-            if (c != ' ') {
-                result += scoreWord(location, direction.opposite(), c);
+                int points = VALUES[c] * LETTER_MULTIPLIERS[square];
+                result += points;
+                multiplier *= WORD_MULTIPLIERS[square];
+                crossWords += scoreCrossWord(square, crossStep, points);
                 tilesPlayed++;
             }
-            location = location.neighbor(direction);
         }
+        result = result * multiplier + crossWords;
         if (tilesPlayed == 7) {
             result += 50;
         }
         return result;
     }
 
-    /** Throws an IllegalMoveException if playing word at location in direction from hand would not be legal. */
-    public void verifyLegality(String word, Location location, Location direction, List<Character> hand) throws IllegalMoveException {
+    /** Returns the value of tile (a letter, a played blank, or _), as in TILE_VALUES. */
+    public static int valueOf(char tile) {
+        return tile < VALUES.length ? VALUES[tile] : 0;
+    }
+
+    /**
+     * Returns LEGAL if playing word at location in direction from hand would be legal, otherwise the (negative) code of
+     * the first rule it breaks: TOO_SHORT, NO_NEW_TILE, NOT_IN_HAND, BAD_PLACEMENT, NOT_CONNECTED, or INVALID_WORD.
+     * A character that no tile can supply (anything but letters and spaces) counts as NOT_IN_HAND. Unlike
+     * verifyLegality, this never throws, and it allocates nothing beyond its arguments, which the caller
+     * supplies (GateKeeper passes the hand the Board already holds), so it suits AIs that try many candidates.
+     */
+    public int checkLegality(String word, Location location, Location direction, Rack hand) {
         if (word.length() < 2) {
-            throw new IllegalMoveException("Word must be at least two letters long.");
+            return TOO_SHORT;
         }
         boolean containsNonspace = false;
-        for (char c : word.toCharArray()) {
-            if (c != ' ') {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != ' ') {
                 containsNonspace = true;
                 break;
             }
         }
         if (!containsNonspace) {
-            throw new IllegalMoveException("Word must contain at least one new tile.");
+            return NO_NEW_TILE;
         }
         if (!canBeDrawnFromHand(word, hand)) {
-            throw new IllegalMoveException(String.format("Hand does not contain sufficient tiles to play word. word:%s, hand:%s", word, hand));
+            return NOT_IN_HAND;
         }
         if (!canBePlacedOnBoard(word, location, direction)) {
-            throw new IllegalMoveException("Board placement incorrect (gaps, overlapping tiles, edge of board).");
+            return BAD_PLACEMENT;
         }
         if (!wouldBeConnected(word, location, direction)) {
-            throw new IllegalMoveException("Board placement incorrect (gaps, overlapping tiles, edge of board).");
+            return NOT_CONNECTED;
         }
         if (!wouldCreateOnlyLegalWords(word, location, direction)) {
-            throw new IllegalMoveException("Invalid word created.");
+            return INVALID_WORD;
+        }
+        return LEGAL;
+    }
+
+    /**
+     * Returns the score for playing word at location in direction from hand if that is legal, otherwise the negative
+     * code checkLegality would return. Like checkLegality, never throws and allocates nothing beyond its arguments.
+     */
+    public int tryScore(String word, Location location, Location direction, Rack hand) {
+        int legality = checkLegality(word, location, direction, hand);
+        return legality == LEGAL ? score(word, location, direction) : legality;
+    }
+
+    /** Throws an IllegalMoveException if playing word at location in direction from hand would not be legal. */
+    public void verifyLegality(String word, Location location, Location direction, Rack hand) throws IllegalMoveException {
+        switch (checkLegality(word, location, direction, hand)) {
+            case TOO_SHORT:
+                throw new IllegalMoveException("Word must be at least two letters long.");
+            case NO_NEW_TILE:
+                throw new IllegalMoveException("Word must contain at least one new tile.");
+            case NOT_IN_HAND:
+                throw new IllegalMoveException(String.format("Hand does not contain sufficient tiles to play word. word:%s, hand:%s", word, hand));
+            case BAD_PLACEMENT:
+            case NOT_CONNECTED:
+                throw new IllegalMoveException("Board placement incorrect (gaps, overlapping tiles, edge of board).");
+            case INVALID_WORD:
+                throw new IllegalMoveException("Invalid word created.");
+            default:
+                // Legal
         }
     }
 
@@ -482,12 +835,22 @@ public class Board {
      *
      * @throws IllegalMoveException if the move is illegal.
      */
-    public void play(String word, Location location, Location direction, List<Character> hand)
+    public void play(String word, Location location, Location direction, Rack hand)
             throws IllegalMoveException {
         verifyLegality(word, location, direction, hand);
         scores[currentPlayer] += score(word, location, direction);
         placeWord(word, location, direction);
-        removeTiles(word, hand);
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c != ' ') {
+                take(hand, Character.isUpperCase(c) ? '_' : c);
+            }
+        }
+        finishPlay(hand);
+    }
+
+    /** Refills hand after a play, passes the turn, and resolves the end of the game if applicable. */
+    private void finishPlay(Rack hand) {
         deal(hand, 7 - hand.size());
         currentPlayer = 1 - currentPlayer;
         numberOfPasses = 0;
@@ -502,20 +865,27 @@ public class Board {
      *
      * @param tilesToExchange An array of 7 booleans indicating which tiles to exchange.
      */
-    public void exchange(List<Character> hand, boolean[] tilesToExchange) {
-        String removed = "";
+    public void exchange(Rack hand, boolean[] tilesToExchange) {
+        if (journal != null) { // The shuffle below loses the bag's order, so keep it
+            journal.bag = Arrays.copyOf(bag, bagSize);
+        }
+        // Find the tiles before removing any, since removal moves the rest
+        char[] dumped = new char[hand.size()];
+        int count = 0;
         for (int i = 0; i < hand.size(); i++) {
             if (tilesToExchange[i]) {
-                removed += hand.get(i);
+                dumped[count++] = hand.get(i);
             }
         }
-        String dumped = removeTiles(removed, hand);
+        for (int i = 0; i < count; i++) {
+            take(hand, dumped[i]);
+        }
         deal(hand, 7 - hand.size());
         // Return dumped letters to bag
-        for (char c : dumped.toCharArray()) {
-            bag.add(c);
+        for (int i = 0; i < count; i++) {
+            bag[bagSize++] = dumped[i];
         }
-        Collections.shuffle(bag);
+        shuffleBag();
         // If there weren't enough letters in bag, some dumped letters may return to hand
         deal(hand, 7 - hand.size());
         currentPlayer = 1 - currentPlayer;
@@ -525,17 +895,113 @@ public class Board {
         }
     }
 
+    /** Removes tile from hand, noting it in the journal if a move is being applied. */
+    private void take(Rack hand, char tile) {
+        hand.removeTile(tile);
+        if (journal != null) {
+            journal.taken[journal.takenCount++] = tile;
+        }
+    }
+
+    /**
+     * Plays move for the current player, as move.play would, and returns a record of what changed. Passing that record
+     * to undo restores this Board exactly as it was, including the hands and the order of the bag. Applying and
+     * undoing a PlayWord takes time proportional to the number of tiles placed; an ExchangeTiles also copies the bag.
+     *
+     * Records must be undone in the reverse of the order their moves were applied, and the Board must not otherwise
+     * change in between.
+     *
+     * @throws IllegalMoveException if the move is illegal, in which case this Board is unchanged.
+     */
+    public UndoRecord apply(ScrabbleMove move) throws IllegalMoveException {
+        UndoRecord record = new UndoRecord(currentPlayer, scores[0], scores[1], numberOfPasses, appliedMoves + 1);
+        journal = record;
+        try {
+            move.play(this, currentPlayer);
+        } finally {
+            journal = null;
+        }
+        appliedMoves++;
+        return record;
+    }
+
+    /**
+     * Plays word[0] through word[length - 1] from row, column in direction for the current player, as apply would play
+     * the same PlayWord, without creating one. The word is in the form MoveConsumer.accept uses. Unlike apply, this
+     * does not check legality: the play must be legal, e.g. one a MoveGenerator found in this position.
+     */
+    public UndoRecord apply(char[] word, int length, int row, int column, Location direction) {
+        UndoRecord record = new UndoRecord(currentPlayer, scores[0], scores[1], numberOfPasses, appliedMoves + 1);
+        journal = record;
+        try {
+            Rack hand = hands[currentPlayer];
+            scores[currentPlayer] += score(word, length, row, column, direction);
+            int square = squareAt(row, column);
+            int step = step(direction);
+            for (int i = 0; i < length; i++, square += step) {
+                char c = word[i];
+                if (c != ' ') {
+                    setSquare(c, square);
+                    take(hand, c >= 'A' && c <= 'Z' ? '_' : c);
+                }
+            }
+            finishPlay(hand);
+        } finally {
+            journal = null;
+        }
+        appliedMoves++;
+        return record;
+    }
+
+    /**
+     * Takes back the move that produced record, which must be the most recent one applied and not yet undone.
+     *
+     * @throws IllegalStateException if record is not the most recent such record.
+     */
+    public void undo(UndoRecord record) {
+        if (record.depth != appliedMoves) {
+            throw new IllegalStateException("Moves must be undone in the reverse of the order they were applied");
+        }
+        Rack hand = hands[record.player];
+        for (int i = record.dealtCount - 1; i >= 0; i--) { // Last drawn goes back first, leaving the bag as it was
+            hand.removeTile(record.dealt[i]);
+            bag[bagSize++] = record.dealt[i];
+        }
+        if (draws != null) {
+            draws.setLength(draws.length() - record.dealtCount);
+        }
+        for (int i = 0; i < record.takenCount; i++) {
+            hand.addTile(record.taken[i]);
+        }
+        if (record.bag != null) {
+            System.arraycopy(record.bag, 0, bag, 0, record.bag.length);
+            bagSize = record.bag.length;
+        }
+        for (int i = 0; i < record.squareCount; i++) {
+            clearSquare(record.squares[i]);
+        }
+        scores[0] = record.score0;
+        scores[1] = record.score1;
+        currentPlayer = record.player;
+        numberOfPasses = record.numberOfPasses;
+        appliedMoves--;
+    }
+
     /** Removes the tiles used in word from hand and returns them in a new String. */
-    public String removeTiles(String word, List<Character> hand) {
-        String result = "";
-        for (Character c : word.toCharArray()) {
+    public String removeTiles(String word, Rack hand) {
+        char[] result = new char[word.length()];
+        int count = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
             if (c >= 'A' && c <= 'Z') {
                 c = '_';
             }
-            hand.remove(c);
-            result += c;
+            if (c != ' ') {
+                hand.removeTile(c);
+                result[count++] = c;
+            }
         }
-        return result;
+        return new String(result, 0, count);
     }
 
     /** Returns the current player number (0 or 1). */
@@ -543,6 +1009,11 @@ public class Board {
         return currentPlayer;
     }
 
+    /** Returns the number of consecutive tile exchange turns (including passes) just played; 2 ends the game. */
+    public int getNumberOfPasses() {
+        return numberOfPasses;
+    }
+
     /** Returns true if the game is over. */
     public boolean gameIsOver() {
         return numberOfPasses == 2 || hands[0].isEmpty() || hands[1].isEmpty();
@@ -552,9 +1023,7 @@ public class Board {
     private void scoreUnplayedTiles() {
         int[] values = new int[2];
         for (int i = 0; i < hands.length; i++) {
-            for (char c : hands[i]) {
-                values[i] += TILE_VALUES.get(c);
-            }
+            values[i] = hands[i].getValue();
         }
         for (int i = 0; i < hands.length; i++) {
             scores[i] -= values[i]; // Lose value of own letters
@@ -0,0 +1,78 @@
+package scrabble;
+
+/**
+ * An immutable copy of a Board's position (squares, hands, bag, scores, player to move and pass count), made by
+ * Board.snapshot. Any number of threads may fork Boards from one snapshot at once, e.g. to run independent rollouts.
+ *
+ * The squares are shared with the Board the snapshot came from and with every fork; each of those copies them only
+ * when it first changes them. Forking therefore costs a copy of the two hands and the bag, a few hundred bytes, rather
+ * than of the whole board.
+ */
+public final class BoardSnapshot {
+
+    /** Arrays as in Board. Never modified: a Board sharing them copies them before changing a square. */
+    final char[] tiles;
+
+    final int[] rowOccupancy;
+
+    final int[] columnOccupancy;
+
+    /** As in Board. */
+    final long squaresHash;
+
+    /** Copies of the players' hands, never modified. */
+    final Rack[] hands;
+
+    /** Tiles in the bag, as in Board, with the next tile to be drawn last. */
+    final char[] bag;
+
+    final int score0, score1;
+
+    final int currentPlayer;
+
+    final int numberOfPasses;
+
+    BoardSnapshot(char[] tiles, int[] rowOccupancy, int[] columnOccupancy, long squaresHash, Rack hand0, Rack hand1,
+                  char[] bag, int score0, int score1, int currentPlayer, int numberOfPasses) {
+        this.tiles = tiles;
+        this.rowOccupancy = rowOccupancy;
+        this.columnOccupancy = columnOccupancy;
+        this.squaresHash = squaresHash;
+        this.hands = new Rack[] {hand0, hand1};
+        this.bag = bag;
+        this.score0 = score0;
+        this.score1 = score1;
+        this.currentPlayer = currentPlayer;
+        this.numberOfPasses = numberOfPasses;
+    }
+
+    /** Returns a new Board in this position, which the caller may change freely. */
+    public Board fork() {
+        return new Board(this);
+    }
+
+    /** Returns the same hash as Board.getHash would for this position. */
+    public long getHash() {
+        return Board.hash(squaresHash, currentPlayer);
+    }
+
+    /** Returns the number of the player to move (0 or 1). */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Returns player's score.
+     *
+     * @param player Player number (0 or 1).
+     */
+    public int getScore(int player) {
+        return player == 0 ? score0 : score1;
+    }
+
+    /** Returns the number of tiles left in the bag. */
+    public int getBagSize() {
+        return bag.length;
+    }
+
+}
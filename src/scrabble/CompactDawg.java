@@ -0,0 +1,309 @@
+package scrabble;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * Minimized directed acyclic word graph stored in a single flat int buffer. Immutable once built. The buffer is either
+ * an ordinary heap array or a read-only view of a memory-mapped lexicon file (see LexiconFile).
+ *
+ * Each node is a run of consecutive edges in the array; the index of the first edge is the node's id. Each edge packs
+ * the letter (bits 0-4, 0 for 'a'), a bit marking that a word ends after this edge, a bit marking the last edge of
+ * its node, and the id of the child node (remaining bits, 0 if the child has no edges). Index 0 is never a node, so
+ * a node id of 0 means "no children".
+ *
+ * Nodes with identical outgoing edges are shared, so common suffixes (-ing, -ed, -s, ...) are stored once.
+ *
+ * The same encoding also holds a GADDAG (see buildGaddag), which uses one extra symbol, SEPARATOR.
+ */
+public final class CompactDawg {
+
+    /** Returned by findEdge when there is no edge with the requested letter. */
+    public static final int NONE = -1;
+
+    /** Symbol (after the 26 letters) separating the reversed prefix from the suffix in GADDAG paths. */
+    public static final int SEPARATOR = 26;
+
+    /** Character form of SEPARATOR, as it appears in strings passed to the builder. */
+    private static final char SEPARATOR_CHAR = (char) ('a' + SEPARATOR);
+
+    private static final int LETTER_MASK = 0x1F;
+
+    private static final int WORD_BIT = 1 << 5;
+
+    private static final int LAST_BIT = 1 << 6;
+
+    private static final int CHILD_SHIFT = 7;
+
+    /** Packed edges; see the class comment. Only absolute gets are used, so sharing between threads is safe. */
+    private final IntBuffer edges;
+
+    /** Id of the root node. */
+    private final int root;
+
+    /** Number of words in this graph. */
+    private final int wordCount;
+
+    CompactDawg(IntBuffer edges, int root, int wordCount) {
+        this.edges = edges;
+        this.root = root;
+        this.wordCount = wordCount;
+    }
+
+    /** Builds a minimized graph containing exactly words, which must consist of lower-case letters. */
+    public static CompactDawg build(Collection<String> words) {
+        String[] sorted = words.toArray(new String[0]);
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (String word : sorted) {
+            builder.add(word);
+        }
+        return builder.finish(builder.added);
+    }
+
+    /**
+     * Builds a minimized GADDAG (Gordon, 1994) of words. For each word and each split point i (1 <= i <= length), it
+     * contains the path REV(word[0, i)) SEPARATOR word[i, length), except that the separator is omitted when i is the
+     * whole word. A path that starts at any letter of a word can therefore be grown leftward first and then, after
+     * the separator, rightward.
+     */
+    public static CompactDawg buildGaddag(Collection<String> words) {
+        List<String> paths = new ArrayList<>();
+        StringBuilder path = new StringBuilder();
+        for (String word : words) {
+            for (int i = 1; i <= word.length(); i++) {
+                path.setLength(0);
+                for (int j = i - 1; j >= 0; j--) {
+                    path.append(word.charAt(j));
+                }
+                if (i < word.length()) {
+                    path.append(SEPARATOR_CHAR).append(word, i, word.length());
+                }
+                paths.add(path.toString());
+            }
+        }
+        String[] sorted = paths.toArray(new String[0]);
+        paths = null; // Let the list go before the graph is built
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (String p : sorted) {
+            builder.add(p);
+        }
+        return builder.finish(new HashSet<>(words).size()); // Not builder.added, which counts paths
+    }
+
+    /** Returns the id of the root node. */
+    public int root() {
+        return root;
+    }
+
+    /** Returns the index of the edge leaving node with letter (0 for 'a'), or NONE. */
+    public int findEdge(int node, int letter) {
+        if (node == 0) {
+            return NONE;
+        }
+        for (int e = node; ; e++) {
+            int edge = edges.get(e);
+            if ((edge & LETTER_MASK) == letter) {
+                return e;
+            }
+            if ((edge & LAST_BIT) != 0) {
+                return NONE;
+            }
+        }
+    }
+
+    /** Returns the id of the node reached by following edge e. */
+    public int child(int e) {
+        return edges.get(e) >>> CHILD_SHIFT;
+    }
+
+    /** Returns true if a word ends after following edge e. */
+    public boolean isWord(int e) {
+        return (edges.get(e) & WORD_BIT) != 0;
+    }
+
+    /** Returns the letter (0 for 'a') on edge e. */
+    public int letter(int e) {
+        return edges.get(e) & LETTER_MASK;
+    }
+
+    /** Returns true if e is the last edge leaving its node. */
+    public boolean isLast(int e) {
+        return (edges.get(e) & LAST_BIT) != 0;
+    }
+
+    /** Returns true if word (lower case) is in this graph. */
+    public boolean contains(CharSequence word) {
+        if (word.length() == 0) {
+            return false;
+        }
+        int node = root;
+        int e = NONE;
+        for (int i = 0; i < word.length(); i++) {
+            int letter = word.charAt(i) - 'a';
+            if (letter < 0 || letter >= 26) {
+                return false;
+            }
+            e = findEdge(node, letter);
+            if (e == NONE) {
+                return false;
+            }
+            node = child(e);
+        }
+        return isWord(e);
+    }
+
+    /** Returns the number of edges stored (each costs four bytes). */
+    public int size() {
+        return edges.limit();
+    }
+
+    /** Returns the number of words in this graph. */
+    public int wordCount() {
+        return wordCount;
+    }
+
+    /** Writes the packed edges to out, in index order. */
+    void writeEdges(DataOutput out) throws IOException {
+        for (int i = 0; i < edges.limit(); i++) {
+            out.writeInt(edges.get(i));
+        }
+    }
+
+    /**
+     * Incremental construction of a minimal graph from sorted words (Daciuk et al., 2000). Only the path spelling the
+     * most recently added word is kept in expanded form; everything else has already been frozen into the edge array
+     * and registered so that identical nodes are reused.
+     */
+    private static final class Builder {
+
+        /** A node on the current path, not yet frozen. */
+        private static final class Pending {
+            int[] letters = new int[SEPARATOR + 1];
+            int[] children = new int[SEPARATOR + 1];
+            boolean[] words = new boolean[SEPARATOR + 1];
+            int count;
+            boolean isWord;
+
+            void clear() {
+                count = 0;
+                isWord = false;
+            }
+        }
+
+        /** Packed edge list of a frozen node, used as a register key. */
+        private static final class Signature {
+            final int[] edges;
+            final int hash;
+
+            Signature(int[] edges) {
+                this.edges = edges;
+                this.hash = Arrays.hashCode(edges);
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof Signature && Arrays.equals(edges, ((Signature) o).edges);
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+
+        private final Map<Signature, Integer> register = new HashMap<>();
+
+        private int[] output = new int[1 << 16];
+
+        /** Next free index in output; index 0 is reserved. */
+        private int size = 1;
+
+        private Pending[] path = new Pending[16];
+
+        private String previous = "";
+
+        /** Number of distinct strings added. */
+        private int added;
+
+        Builder() {
+            for (int i = 0; i < path.length; i++) {
+                path[i] = new Pending();
+            }
+        }
+
+        void add(String word) {
+            if (word.isEmpty() || word.equals(previous)) {
+                return;
+            }
+            int common = 0;
+            while (common < word.length() && common < previous.length() && word.charAt(common) == previous.charAt(common)) {
+                common++;
+            }
+            freeze(common);
+            if (word.length() >= path.length) {
+                int old = path.length;
+                path = Arrays.copyOf(path, Math.max(word.length() + 1, 2 * old));
+                for (int i = old; i < path.length; i++) {
+                    path[i] = new Pending();
+                }
+            }
+            for (int i = common; i < word.length(); i++) {
+                Pending parent = path[i];
+                parent.letters[parent.count] = word.charAt(i) - 'a';
+                parent.count++;
+                path[i + 1].clear();
+            }
+            path[word.length()].isWord = true;
+            previous = word;
+            added++;
+        }
+
+        /** Freezes the nodes on the current path deeper than depth. */
+        private void freeze(int depth) {
+            for (int i = previous.length(); i > depth; i--) {
+                Pending node = path[i];
+                Pending parent = path[i - 1];
+                parent.children[parent.count - 1] = store(node);
+                parent.words[parent.count - 1] = node.isWord;
+            }
+        }
+
+        /** Returns the id of a frozen node equivalent to node, adding one if necessary. */
+        private int store(Pending node) {
+            if (node.count == 0) {
+                return 0;
+            }
+            int[] packed = new int[node.count];
+            for (int i = 0; i < node.count; i++) {
+                packed[i] = node.letters[i]
+                        | (node.words[i] ? WORD_BIT : 0)
+                        | (i == node.count - 1 ? LAST_BIT : 0)
+                        | (node.children[i] << CHILD_SHIFT);
+            }
+            Signature key = new Signature(packed);
+            Integer id = register.get(key);
+            if (id != null) {
+                return id;
+            }
+            if (size + packed.length > output.length) {
+                output = Arrays.copyOf(output, 2 * output.length);
+            }
+            System.arraycopy(packed, 0, output, size, packed.length);
+            register.put(key, size);
+            size += packed.length;
+            return size - packed.length;
+        }
+
+        CompactDawg finish(int wordCount) {
+            freeze(0);
+            int root = store(path[0]);
+            return new CompactDawg(IntBuffer.wrap(Arrays.copyOf(output, size)), root, wordCount);
+        }
+
+    }
+
+}
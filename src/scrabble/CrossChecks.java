@@ -0,0 +1,183 @@
+package scrabble;
+
+/**
+ * For each empty square, the set of letters that could be played there without forming an invalid word in the
+ * perpendicular direction, and the value of the tiles already in that perpendicular word. Each set is a mask with bit
+ * i standing for the letter 'a' + i.
+ *
+ * Squares are numbered row * Board.WIDTH + column. Direction 0 is for horizontal moves (so the cross words are
+ * vertical), direction 1 for vertical moves.
+ *
+ * The masks are kept from one update to the next. The masks for horizontal moves only depend on the contents of
+ * their column, and those for vertical moves on their row, so an update only recomputes the columns and rows in which
+ * some square differs from the previous update. Usually that is the one or two lines touched by each move since then.
+ */
+public final class CrossChecks {
+
+    /** Mask allowing every letter. */
+    public static final int ALL_LETTERS = (1 << 26) - 1;
+
+    /** Returned by crossSum for squares where a tile would not form a cross word. */
+    public static final int NO_CROSS_WORD = -1;
+
+    /** Number of different values returned by blankClass. */
+    public static final int BLANK_CLASSES = 3 * 3 * 2;
+
+    private static final int SQUARES = Board.WIDTH * Board.WIDTH;
+
+    /** Bit mask with one bit for each row (or column). */
+    private static final int ALL_LINES = (1 << Board.WIDTH) - 1;
+
+    /** masks[direction][square]; meaningless for occupied squares. */
+    private final int[][] masks = new int[2][SQUARES];
+
+    /** sums[direction][square]: value of the tiles in the cross word through square, or NO_CROSS_WORD. */
+    private final int[][] sums = new int[2][SQUARES];
+
+    /** Board as of the previous update. */
+    private final char[] previous = new char[SQUARES];
+
+    /** Words used in the previous update, or null before the first one. */
+    private CompactDawg dawg;
+
+    /**
+     * Brings the masks up to date with squares. Squares changed since the previous update cause their row and column
+     * to be recomputed. A different dawg (or the first update) causes everything to be recomputed.
+     *
+     * @param squares Contents of the board, indexed as in the class comment.
+     * @param dawg Legal words.
+     */
+    public void update(char[] squares, CompactDawg dawg) {
+        int dirtyRows = 0;
+        int dirtyColumns = 0;
+        if (dawg != this.dawg) {
+            dirtyRows = ALL_LINES;
+            dirtyColumns = ALL_LINES;
+            this.dawg = dawg;
+        } else {
+            for (int square = 0; square < SQUARES; square++) {
+                if (squares[square] != previous[square]) { // Includes tiles that vanish because a new game started
+                    dirtyRows |= 1 << (square / Board.WIDTH);
+                    dirtyColumns |= 1 << (square % Board.WIDTH);
+                }
+            }
+        }
+        System.arraycopy(squares, 0, previous, 0, SQUARES);
+        for (int column = 0; column < Board.WIDTH; column++) {
+            if ((dirtyColumns & (1 << column)) != 0) {
+                for (int row = 0; row < Board.WIDTH; row++) {
+                    int square = row * Board.WIDTH + column;
+                    if (!isTile(squares[square])) {
+                        compute(squares, 0, row, column, 1, 0);
+                    }
+                }
+            }
+        }
+        for (int row = 0; row < Board.WIDTH; row++) {
+            if ((dirtyRows & (1 << row)) != 0) {
+                for (int column = 0; column < Board.WIDTH; column++) {
+                    int square = row * Board.WIDTH + column;
+                    if (!isTile(squares[square])) {
+                        compute(squares, 1, row, column, 0, 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns the letters that may be played on square by a move in direction (0 horizontal, 1 vertical). */
+    public int get(int direction, int square) {
+        return masks[direction][square];
+    }
+
+    /**
+     * Returns the total value of the tiles already on the board in the cross word through square, for a move in
+     * direction, or NO_CROSS_WORD if a tile there would have no neighbors in the perpendicular direction.
+     */
+    public int crossSum(int direction, int square) {
+        return sums[direction][square];
+    }
+
+    /**
+     * Returns a number below BLANK_CLASSES identifying the premiums on square and whether it has a cross word, for a
+     * move in direction. Within one move, playing a blank instead of a real letter costs the same number of points on
+     * any two squares of the same class, so move generators only need to try the blank on one of them.
+     */
+    public int blankClass(int direction, int square) {
+        return ((Board.LETTER_MULTIPLIERS[square] - 1) * 3 + Board.WORD_MULTIPLIERS[square] - 1) * 2
+                + (sums[direction][square] == NO_CROSS_WORD ? 0 : 1);
+    }
+
+    /** Returns true if c is a tile rather than a premium square symbol. */
+    static boolean isTile(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /** Returns the index (0 for 'a') of the letter on tile c, which may be a played blank. */
+    static int letterOf(char c) {
+        return Character.toLowerCase(c) - 'a';
+    }
+
+    private static boolean isTile(char[] squares, int row, int column) {
+        return row >= 0 && row < Board.WIDTH && column >= 0 && column < Board.WIDTH
+                && isTile(squares[row * Board.WIDTH + column]);
+    }
+
+    /**
+     * Computes the mask and sum for the empty square at row, column, for moves in direction, where the cross word runs
+     * in direction dr, dc.
+     */
+    private void compute(char[] squares, int direction, int row, int column, int dr, int dc) {
+        int square = row * Board.WIDTH + column;
+        int r = row;
+        int c = column;
+        while (isTile(squares, r - dr, c - dc)) {
+            r -= dr;
+            c -= dc;
+        }
+        if (r == row && c == column && !isTile(squares, row + dr, column + dc)) {
+            masks[direction][square] = ALL_LETTERS; // No cross word at all
+            sums[direction][square] = NO_CROSS_WORD;
+            return;
+        }
+        int sum = 0;
+        for (int r2 = row + dr, c2 = column + dc; isTile(squares, r2, c2); r2 += dr, c2 += dc) {
+            sum += Board.VALUES[squares[r2 * Board.WIDTH + c2]];
+        }
+        // Follow the tiles before the square
+        int node = dawg.root();
+        for (; r != row || c != column; r += dr, c += dc) {
+            sum += Board.VALUES[squares[r * Board.WIDTH + c]];
+            int e = dawg.findEdge(node, letterOf(squares[r * Board.WIDTH + c]));
+            if (e == CompactDawg.NONE) {
+                node = 0;
+                break;
+            }
+            node = dawg.child(e);
+        }
+        sums[direction][square] = sum;
+        // Try each letter that can come next, then the tiles after the square
+        int result = 0;
+        for (int e = node; node != 0; e++) {
+            if (completesWord(squares, dawg, e, row + dr, column + dc, dr, dc)) {
+                result |= 1 << dawg.letter(e);
+            }
+            if (dawg.isLast(e)) {
+                break;
+            }
+        }
+        masks[direction][square] = result;
+    }
+
+    /** Returns true if following edge e and then the tiles starting at row, column spells a word. */
+    private static boolean completesWord(char[] squares, CompactDawg dawg, int e, int row, int column, int dr, int dc) {
+        for (; isTile(squares, row, column); row += dr, column += dc) {
+            e = dawg.findEdge(dawg.child(e), letterOf(squares[row * Board.WIDTH + column]));
+            if (e == CompactDawg.NONE) {
+                return false;
+            }
+        }
+        return dawg.isWord(e);
+    }
+
+}
@@ -0,0 +1,668 @@
+package scrabble;
+
+import java.util.Arrays;
+
+/**
+ * AI for the endgame. While tiles remain in the bag it lets another ScrabbleAI choose; once the bag is empty, the
+ * opponent's hand is exactly the tiles not on the board or in our own hand, so the game is one of perfect information,
+ * and this searches it.
+ *
+ * The search is iterative-deepening alpha-beta (principal variation search) over both hands, on one Board forked from
+ * GateKeeper.snapshot and changed with Board.apply and Board.undo. At each node the moves are the plays and a pass,
+ * searched best first: the move the transposition table remembers, then the plays by what they would be worth if the
+ * game ended after them. Values are the change in the score difference from the point of view of the player to move,
+ * so the end-of-game rules (unplayed tile penalties, the going-out bonus, two passes in a row) come from Board itself.
+ * At the depth limit a position is valued by the difference between the two hands' tile values, which is what the
+ * end-of-game adjustment would make of it.
+ *
+ * By default every play is searched, so a search to the end of the game gives the exact value. A move cap may be set
+ * instead, to search deeper in the time: below the root, only that many plays with the best end-of-game values are
+ * tried, and the pass. The search notes whether the cap actually left any play out (see isLastSolved).
+ *
+ * Finding the plays is most of the work, so it is done a line (row or column) at a time and remembered. The plays
+ * along a line depend only on the tiles and cross-checks in that line and on the hand, and every hand in the search is
+ * part of that player's hand at the root. So each line is searched once per state of the line, with the root hand,
+ * and a node takes from each line the plays its own hand can make. A node usually differs from the ones searched
+ * before it in a few lines, and only those need the move generator.
+ *
+ * When the time limit runs out, or cancel is called, the move from the deepest search that finished is played, unless
+ * the unfinished deeper search has already shown another move to be better.
+ */
+public class EndgameSolver implements ScrabbleAI {
+
+    /** Default time limit per move, in milliseconds. */
+    public static final long DEFAULT_BUDGET_MILLIS = 1000;
+
+    /** Move cap meaning that every play is searched at every node. */
+    public static final int FULL_WIDTH = Integer.MAX_VALUE;
+
+    /** Entries in the transposition table; a power of two. */
+    private static final int TABLE_SIZE = 1 << 18;
+
+    /** Kinds of transposition table entry: the value is exact, or only a lower or upper bound. */
+    private static final byte EXACT = 0, LOWER = 1, UPPER = 2;
+
+    /** Stored in the transposition table as the best move when that is a pass. */
+    private static final short PASS_MOVE = -1;
+
+    /** Larger than the magnitude of any value. */
+    private static final int INFINITY = 1_000_000;
+
+    /** Added to a position's hash once per pass just played, since that changes what the moves lead to. */
+    private static final long PASS_KEY = 0x9E3779B97F4A7C15L;
+
+    /** Entries in the cache of lines' plays; a power of two. */
+    private static final int LINE_CACHE_SIZE = 1 << 16;
+
+    /** Most plies in a search: two per tile in the hands (a play and a pass), plus a final pass, plus the root. */
+    private static final int MAX_PLIES = 2 * (7 + 7) + 2;
+
+    private static final int SQUARES = Board.WIDTH * Board.WIDTH;
+
+    private static final ExchangeTiles PASS = new ExchangeTiles(new boolean[7]);
+
+    private final ScrabbleAI midgame;
+
+    private final long budgetNanos;
+
+    /** Most plays searched at a node below the root, not counting the pass, or FULL_WIDTH. */
+    private final int moveCap;
+
+    /** Searches the lines that are not in the cache. */
+    private final LineMoveGenerator generator;
+
+    private final long[] keys = new long[TABLE_SIZE];
+
+    private final int[] values = new int[TABLE_SIZE];
+
+    private final byte[] depths = new byte[TABLE_SIZE];
+
+    private final byte[] kinds = new byte[TABLE_SIZE];
+
+    /** Rank, in the node's plays best first, of the best move found, or PASS_MOVE. */
+    private final short[] bestMoves = new short[TABLE_SIZE];
+
+    /** Cache of lines' plays; entries are created when first needed and then reused. */
+    private final LineMoves[] lines = new LineMoves[LINE_CACHE_SIZE];
+
+    /** Numbers the searches, since cached plays only suit the root hands of the search that found them. */
+    private int epoch;
+
+    /** Plays of the node at each ply of the search; created when first needed and then reused. */
+    private final Ply[] plies = new Ply[MAX_PLIES];
+
+    /** Cross-checks of the node being searched, from which the lines' states are read. */
+    private final CrossChecks crossChecks = new CrossChecks();
+
+    /** Contents of the board at the node being searched, as the generators see them. */
+    private final char[] squares = new char[SQUARES];
+
+    /** State of the line being looked up, as in LineMoves.state. */
+    private final long[] lineState = new long[Board.WIDTH];
+
+    /** Each player's hand at the root. */
+    private final Rack[] roots = new Rack[2];
+
+    /**
+     * firstBit[player][slot]: position of the first tile of slot in roots[player], in list order. A set of tiles from
+     * the root hand is a mask with a bit per position, taking the first tiles of each slot (as in EquityConsumer).
+     */
+    private final int[][] firstBit = new int[2][Rack.SLOTS];
+
+    /** Tiles of each slot counted so far in the play being stored; always 0 between plays. */
+    private final int[] used = new int[Rack.SLOTS];
+
+    /** The play being applied, copied out of its Ply. */
+    private final char[] word = new char[Board.WIDTH];
+
+    /** Receives the plays of the line being searched, into filling. */
+    private final MoveConsumer store = this::store;
+
+    private LineMoves filling;
+
+    /** True once the generator has read the node being searched. */
+    private boolean prepared;
+
+    private final GateKeeper[] gateKeepers = new GateKeeper[2];
+
+    private CompactDawg dawg;
+
+    private Board board;
+
+    private GateKeeper gateKeeper;
+
+    private long deadline;
+
+    private boolean timedOut;
+
+    /** Set by cancel to stop the search in progress. */
+    private volatile boolean cancelled;
+
+    private long nodes;
+
+    private int lastDepth;
+
+    private int lastValue;
+
+    /** True once the move cap has left a play out of the search for the current endgame move. */
+    private boolean pruned;
+
+    private boolean lastSolved;
+
+    /** Searches for DEFAULT_BUDGET_MILLIS per move once the bag is empty; midgame chooses until then. */
+    public EndgameSolver(ScrabbleAI midgame) {
+        this(midgame, DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Searches for budgetMillis per move once the bag is empty, with the team AI's default engine; midgame chooses
+     * until then.
+     */
+    public EndgameSolver(ScrabbleAI midgame, long budgetMillis) {
+        this(midgame, budgetMillis, ScrabbleTeamProjectScrabbleTeamProject.DEFAULT_ENGINE);
+    }
+
+    /** As EndgameSolver(ScrabbleAI, long), but finds moves with engine. */
+    public EndgameSolver(ScrabbleAI midgame, long budgetMillis, ScrabbleTeamProjectScrabbleTeamProject.Engine engine) {
+        this(midgame, budgetMillis, engine, FULL_WIDTH);
+    }
+
+    /**
+     * As EndgameSolver(ScrabbleAI, long, Engine), but searches at most moveCap plays, and the pass, at each node below
+     * the root (see the class comment). Pass FULL_WIDTH to search every play.
+     */
+    public EndgameSolver(ScrabbleAI midgame, long budgetMillis, ScrabbleTeamProjectScrabbleTeamProject.Engine engine,
+            int moveCap) {
+        if (moveCap < 1) {
+            throw new IllegalArgumentException("Move cap must be positive: " + moveCap);
+        }
+        this.midgame = midgame;
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.moveCap = moveCap;
+        generator = ScrabbleTeamProjectScrabbleTeamProject.createGenerator(engine);
+    }
+
+    @Override
+    public void setGateKeeper(GateKeeper gateKeeper) {
+        this.gateKeeper = gateKeeper;
+        midgame.setGateKeeper(gateKeeper);
+    }
+
+    @Override
+    public ScrabbleMove chooseMove() {
+        if (gateKeeper.getBagSize() > 0) {
+            return midgame.chooseMove();
+        }
+        return chooseMove(System.nanoTime() + budgetNanos);
+    }
+
+    /** Searches until deadline, whatever the budget this AI was created with, or passes deadline on to midgame. */
+    @Override
+    public ScrabbleMove chooseMove(long deadline) {
+        cancelled = false;
+        if (gateKeeper.getBagSize() > 0) {
+            return midgame.chooseMove(deadline);
+        }
+        return solve(gateKeeper.snapshot().fork(), deadline);
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        midgame.cancel();
+    }
+
+    /** Returns the depth, in plies, of the deepest search that finished for the last endgame move. */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Returns how much the last endgame move was expected to gain on the opponent, by the deepest search. This is what
+     * it gains with best play by both sides if isLastSolved.
+     */
+    public int getLastValue() {
+        return lastValue;
+    }
+
+    /**
+     * Returns true if the last endgame move was chosen by a search that reached the end of the game without the move
+     * cap leaving out any play, so that getLastValue is exact.
+     */
+    public boolean isLastSolved() {
+        return lastSolved;
+    }
+
+    /** Returns the number of positions searched for the last endgame move. */
+    public long getLastNodes() {
+        return nodes;
+    }
+
+    /** Returns the best move for the player to move on board, which has an empty bag, searching until deadline. */
+    ScrabbleMove solve(Board board, long deadline) {
+        this.board = board;
+        this.deadline = deadline;
+        timedOut = false;
+        nodes = 0;
+        lastDepth = 0;
+        lastValue = 0;
+        lastSolved = false;
+        pruned = false;
+        if (moveCap != FULL_WIDTH) {
+            Arrays.fill(keys, 0); // Values from earlier searches may rest on cuts that pruned would not know of
+        }
+        epoch++;
+        for (int player = 0; player < 2; player++) {
+            gateKeepers[player] = new GateKeeper(board, player);
+            roots[player] = new Rack(board.getHand(player));
+            for (int slot = 0, position = 0; slot < Rack.SLOTS; slot++) {
+                firstBit[player][slot] = position;
+                position += roots[player].getCount(slot);
+            }
+        }
+        dawg = gateKeepers[0].getLexicon().getDawg();
+        // Every turn but a pass places a tile, and two passes in a row end the game, so this depth sees every ending
+        int fullDepth = 2 * (board.getHand(0).size() + board.getHand(1).size()) + 1;
+        long key = key();
+        Ply root = ply(0);
+        collect(root, true);
+        root.width = root.count;
+        int best = 0;
+        for (int depth = 1; depth <= fullDepth; depth++) {
+            int alpha = -INFINITY;
+            int bestThisDepth = best;
+            // The best move of the previous depth goes first, which is most of what makes deepening pay
+            for (int i = -1; i <= root.width; i++) {
+                if (i == best) {
+                    continue;
+                }
+                int rank = i < 0 ? best : i;
+                int value = i < 0 ? gainAndSearch(0, rank, depth - 1, alpha, INFINITY)
+                        : gainAndSearch(0, rank, depth - 1, alpha, alpha + 1);
+                if (value > alpha && i >= 0 && !timedOut) {
+                    value = gainAndSearch(0, rank, depth - 1, value, INFINITY);
+                }
+                if (timedOut) {
+                    return move(root, bestThisDepth); // Only changed by moves whose search finished
+                }
+                if (value > alpha) {
+                    alpha = value;
+                    bestThisDepth = rank;
+                }
+            }
+            best = bestThisDepth;
+            store(key, depth, alpha, EXACT, best == root.width ? PASS_MOVE : best);
+            lastDepth = depth;
+            lastValue = alpha;
+            lastSolved = depth == fullDepth && !pruned;
+        }
+        return move(root, best);
+    }
+
+    /**
+     * Plays the move of the given rank at ply, searches the result to depth, takes the move back, and returns the value
+     * of the move for the player who made it, searched with window alpha, beta.
+     */
+    private int gainAndSearch(int ply, int rank, int depth, int alpha, int beta) {
+        int player = board.getCurrentPlayer();
+        int before = spread(player);
+        UndoRecord record = apply(plies[ply], rank);
+        int gain = spread(player) - before;
+        int value = gain - search(ply + 1, depth, gain - beta, gain - alpha);
+        board.undo(record);
+        return value;
+    }
+
+    /** Returns the value of the board, at ply, for the player to move, relative to the current score difference. */
+    private int search(int ply, int depth, int alpha, int beta) {
+        if (board.gameIsOver()) {
+            return 0; // Board has already made the end-of-game adjustments
+        }
+        int player = board.getCurrentPlayer();
+        int handGap = board.getHand(1 - player).getValue() - board.getHand(player).getValue();
+        if (depth == 0) {
+            return handGap;
+        }
+        nodes++;
+        if (System.nanoTime() > deadline || cancelled) { // Cheap next to finding a node's moves
+            timedOut = true;
+        }
+        if (timedOut) {
+            return 0; // Ignored; the search is being abandoned
+        }
+        long key = key();
+        int slot = slot(key);
+        int first = 0;
+        if (keys[slot] == key) {
+            first = bestMoves[slot];
+            if (depths[slot] >= depth) {
+                int value = values[slot];
+                if (kinds[slot] == EXACT || kinds[slot] == LOWER && value >= beta
+                        || kinds[slot] == UPPER && value <= alpha) {
+                    return value;
+                }
+            }
+        }
+        Ply moves = ply(ply);
+        if (depth == 1) {
+            // Plays are valued as if followed by the end of the game, which is all that is left to see
+            collect(moves, false);
+            int best = Math.max(0, moves.best);
+            store(key, depth, handGap + best, EXACT, best > 0 ? 0 : PASS_MOVE);
+            return handGap + best;
+        }
+        collect(moves, true);
+        moves.width = Math.min(moves.count, moveCap);
+        if (moves.width < moves.count) {
+            pruned = true;
+        }
+        if (first == PASS_MOVE) {
+            first = moves.width;
+        } else if (first > moves.width) {
+            first = 0; // A different position with the same key
+        }
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestRank = first;
+        for (int i = -1; i <= moves.width; i++) {
+            if (i == first) {
+                continue;
+            }
+            int rank = i < 0 ? first : i;
+            int value;
+            if (i < 0) {
+                value = gainAndSearch(ply, rank, depth - 1, alpha, beta);
+            } else {
+                // Principal variation search: with good ordering the first move is best, so later ones need only be
+                // shown no better, which an empty window does faster, unless one turns out better after all
+                value = gainAndSearch(ply, rank, depth - 1, alpha, alpha + 1);
+                if (value > alpha && value < beta && !timedOut) {
+                    value = gainAndSearch(ply, rank, depth - 1, value, beta);
+                }
+            }
+            if (timedOut) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                bestRank = rank;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        store(key, depth, best, best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT,
+                bestRank == moves.width ? PASS_MOVE : bestRank);
+        return best;
+    }
+
+    /** Returns plies[ply], creating it if need be. */
+    private Ply ply(int ply) {
+        if (plies[ply] == null) {
+            plies[ply] = new Ply();
+        }
+        return plies[ply];
+    }
+
+    /**
+     * Finds the plays open to the player to move, each with its value if the game ended right after it: its score,
+     * plus the values of the tiles it places (which no longer count against the player), plus the opponent's tile
+     * values if it goes out. Sets moves.best to the highest value (Integer.MIN_VALUE if there are no plays). If keep,
+     * also puts the plays in moves, best first, which is a good order to search them in, as that is all the later moves
+     * can add to.
+     */
+    private void collect(Ply moves, boolean keep) {
+        int player = board.getCurrentPlayer();
+        Rack hand = board.getHand(player);
+        int handSize = hand.size();
+        int opponentValue = board.getHand(1 - player).getValue();
+        int rack = 0; // The hand, as a mask over the root hand
+        for (int slot = 0; slot < Rack.SLOTS; slot++) {
+            rack |= ((1 << hand.getCount(slot)) - 1) << firstBit[player][slot];
+        }
+        for (int square = 0; square < SQUARES; square++) {
+            squares[square] = board.getSquare(square);
+        }
+        crossChecks.update(squares, dawg);
+        prepared = false;
+        moves.count = 0;
+        moves.best = Integer.MIN_VALUE;
+        for (int line = 0; line < LineMoveGenerator.LINES; line++) {
+            LineMoves found = linePlays(line, player);
+            for (int m = 0; m < found.count; m++) {
+                if ((found.masks[m] & ~rack) == 0) {
+                    int value = found.values[m] + (found.tileCounts[m] == handSize ? opponentValue : 0);
+                    moves.best = Math.max(moves.best, value);
+                    if (keep) {
+                        moves.add(found, m, value);
+                    }
+                }
+            }
+        }
+        if (keep) {
+            Arrays.sort(moves.order, 0, moves.count);
+        }
+    }
+
+    /** Returns the plays that player's root hand could make along line at the node being searched. */
+    private LineMoves linePlays(int line, int player) {
+        int direction = generator.getDirection(line) == Location.HORIZONTAL ? 0 : 1;
+        int index = line % Board.WIDTH;
+        long key = player * LineMoveGenerator.LINES + line;
+        for (int i = 0; i < Board.WIDTH; i++) {
+            int square = direction == 0 ? Board.squareAt(index, i) : Board.squareAt(i, index);
+            char c = squares[square];
+            long state = CrossChecks.isTile(c) ? Long.MIN_VALUE | c
+                    : (long) crossChecks.get(direction, square) << 16 | crossChecks.crossSum(direction, square) + 1;
+            lineState[i] = state;
+            key = (key ^ state) * PASS_KEY;
+        }
+        int slot = (int) (key ^ (key >>> 32)) & (LINE_CACHE_SIZE - 1);
+        LineMoves result = lines[slot];
+        if (result == null) {
+            result = new LineMoves();
+            lines[slot] = result;
+        } else if (result.epoch == epoch && result.key == key && result.player == player && result.line == line
+                && Arrays.equals(result.state, lineState)) {
+            return result;
+        }
+        if (!prepared) {
+            generator.prepare(gateKeepers[player], roots[player]);
+            prepared = true;
+        }
+        result.epoch = epoch;
+        result.key = key;
+        result.player = player;
+        result.line = line;
+        result.direction = generator.getDirection(line);
+        System.arraycopy(lineState, 0, result.state, 0, Board.WIDTH);
+        result.count = 0;
+        filling = result;
+        generator.searchLine(line, store);
+        return result;
+    }
+
+    /** Adds a play found by the generator to filling, with what collect needs to know about it. */
+    private void store(char[] word, int length, int row, int column, Location direction, int score) {
+        LineMoves moves = filling;
+        int m = moves.add(word, length, Board.squareAt(row, column));
+        int[] first = firstBit[moves.player];
+        int mask = 0;
+        int tiles = 0;
+        for (int i = 0; i < length; i++) {
+            char c = word[i];
+            if (c != ' ') {
+                int slot = c < 'a' ? Rack.BLANK : c - 'a';
+                mask |= 1 << (first[slot] + used[slot]++);
+                score += Board.valueOf(c);
+                tiles++;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            char c = word[i];
+            if (c != ' ') {
+                used[c < 'a' ? Rack.BLANK : c - 'a'] = 0;
+            }
+        }
+        moves.masks[m] = mask;
+        moves.values[m] = score;
+        moves.tileCounts[m] = tiles;
+    }
+
+    /** Plays the move of the given rank in moves (a pass if rank is moves.width) on the board. */
+    private UndoRecord apply(Ply moves, int rank) {
+        if (rank == moves.width) {
+            try {
+                return board.apply(PASS);
+            } catch (IllegalMoveException e) {
+                throw new IllegalStateException("A pass is always legal", e);
+            }
+        }
+        int i = moves.index(rank);
+        System.arraycopy(moves.tiles, i * Board.WIDTH, word, 0, moves.lengths[i]);
+        int start = moves.starts[i];
+        return board.apply(word, moves.lengths[i], start / Board.WIDTH, start % Board.WIDTH, moves.directions[i]);
+    }
+
+    /** Returns the move of the given rank in moves (a pass if rank is moves.width), as a ScrabbleMove. */
+    private static ScrabbleMove move(Ply moves, int rank) {
+        if (rank == moves.width) {
+            return PASS;
+        }
+        int i = moves.index(rank);
+        int start = moves.starts[i];
+        return new PlayWord(new String(moves.tiles, i * Board.WIDTH, moves.lengths[i]),
+                Location.of(start / Board.WIDTH, start % Board.WIDTH), moves.directions[i]);
+    }
+
+    /** Returns the player's score minus the opponent's. */
+    private int spread(int player) {
+        return board.getScore(player) - board.getScore(1 - player);
+    }
+
+    private long key() {
+        return board.getHashWithHands() + PASS_KEY * board.getNumberOfPasses();
+    }
+
+    private static int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & (TABLE_SIZE - 1);
+    }
+
+    /** Records a search result, replacing whatever was in its slot. */
+    private void store(long key, int depth, int value, byte kind, int bestMove) {
+        int slot = slot(key);
+        keys[slot] = key;
+        depths[slot] = (byte) depth;
+        values[slot] = value;
+        kinds[slot] = kind;
+        bestMoves[slot] = (short) bestMove;
+    }
+
+    /**
+     * The plays along one line in one state, from one player's root hand. state[i] is the tile on the line's ith
+     * square, or for an empty square its cross-check mask and cross-word sum; two lines in the same state have the
+     * same plays.
+     */
+    private static final class LineMoves {
+
+        int epoch = -1;
+
+        long key;
+
+        int player;
+
+        int line;
+
+        Location direction;
+
+        final long[] state = new long[Board.WIDTH];
+
+        int count;
+
+        /** First square of each play. */
+        int[] starts = new int[16];
+
+        int[] lengths = new int[16];
+
+        /** Tiles of each play, Board.WIDTH per play. */
+        char[] tiles = new char[16 * Board.WIDTH];
+
+        /** Tiles each play takes from the hand, as a mask over the root hand (see firstBit). */
+        int[] masks = new int[16];
+
+        /** Score of each play plus the values of the tiles it places. */
+        int[] values = new int[16];
+
+        /** Number of tiles each play places. */
+        int[] tileCounts = new int[16];
+
+        /** Adds a play, leaving masks, values and tileCounts to the caller, and returns its index. */
+        int add(char[] word, int length, int start) {
+            if (count == starts.length) {
+                int capacity = 2 * count;
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                tiles = Arrays.copyOf(tiles, capacity * Board.WIDTH);
+                masks = Arrays.copyOf(masks, capacity);
+                values = Arrays.copyOf(values, capacity);
+                tileCounts = Arrays.copyOf(tileCounts, capacity);
+            }
+            starts[count] = start;
+            lengths[count] = length;
+            System.arraycopy(word, 0, tiles, count * Board.WIDTH, length);
+            return count++;
+        }
+
+    }
+
+    /** The plays of the node at one ply, with their end-of-game values, and the order to search them in. */
+    private static final class Ply {
+
+        int count;
+
+        /** Number of plays to search; the pass comes after them. */
+        int width;
+
+        /** Highest value among the plays. */
+        int best;
+
+        int[] starts = new int[64];
+
+        int[] lengths = new int[64];
+
+        Location[] directions = new Location[64];
+
+        char[] tiles = new char[64 * Board.WIDTH];
+
+        /** Value of each play, if the game ended right after it, and its index, packed so as to sort best first. */
+        long[] order = new long[64];
+
+        /** Adds play m of found, with its value. */
+        void add(LineMoves found, int m, int value) {
+            if (count == starts.length) {
+                int capacity = 2 * count;
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                directions = Arrays.copyOf(directions, capacity);
+                tiles = Arrays.copyOf(tiles, capacity * Board.WIDTH);
+                order = Arrays.copyOf(order, capacity);
+            }
+            starts[count] = found.starts[m];
+            lengths[count] = found.lengths[m];
+            directions[count] = found.direction;
+            System.arraycopy(found.tiles, m * Board.WIDTH, tiles, count * Board.WIDTH, found.lengths[m]);
+            order[count] = (long) (INFINITY - value) << 32 | count; // Ties keep the order they were found in
+            count++;
+        }
+
+        /** Returns the index of the play of the given rank, counting from 0 for the best. */
+        int index(int rank) {
+            return (int) order[rank];
+        }
+
+    }
+
+}
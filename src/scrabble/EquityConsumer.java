@@ -0,0 +1,115 @@
+package scrabble;
+
+/**
+ * Passes each move on to another consumer with its equity, the score plus the value of the leave (rounded to whole
+ * points), in place of its score. Once setRack has been called for the rack the moves come from, each move costs a
+ * few steps per tile placed and one lookup: the leave values of every subset of the rack are worked out in setRack.
+ *
+ * Subsets are identified by masks over the positions of the rack's tiles in list order, which groups equal tiles
+ * together. A move that uses k tiles of some letter is taken to use the first k of them, so equal leaves always get
+ * the same mask.
+ */
+public final class EquityConsumer implements MoveConsumer {
+
+    private final LeaveTable leaves;
+
+    private final MoveConsumer next;
+
+    /** leaveValues[mask]: value of keeping all but the tiles at the positions in mask, rounded. */
+    private final int[] leaveValues = new int[1 << LeaveTable.MAX_TILES];
+
+    /** first[slot]: position of the first tile of slot in the rack. */
+    private final int[] first = new int[Rack.SLOTS];
+
+    /** used[slot]: tiles of slot already counted for the current move; always 0 between moves. */
+    private final int[] used = new int[Rack.SLOTS];
+
+    /** Number of tiles in the rack. */
+    private int size;
+
+    public EquityConsumer(LeaveTable leaves, MoveConsumer next) {
+        this.leaves = leaves;
+        this.next = next;
+    }
+
+    /** Prepares for moves drawn from rack, which may hold at most LeaveTable.MAX_TILES tiles. */
+    public void setRack(Rack rack) {
+        size = rack.size();
+        int position = 0;
+        int[] slots = new int[size];
+        for (int slot = 0; slot < Rack.SLOTS; slot++) {
+            first[slot] = position;
+            for (int i = 0; i < rack.getCount(slot); i++) {
+                slots[position++] = slot;
+            }
+        }
+        int[] counts = new int[Rack.SLOTS];
+        for (int mask = 0; mask < 1 << size; mask++) {
+            for (int i = 0; i < size; i++) {
+                if ((mask & (1 << i)) == 0) {
+                    counts[slots[i]]++;
+                }
+            }
+            leaveValues[mask] = (int) Math.round(leaves.value(counts));
+            for (int i = 0; i < size; i++) {
+                counts[slots[i]] = 0;
+            }
+        }
+    }
+
+    /** Returns the value of keeping all but the tiles at the positions in mask (see class comment), rounded. */
+    public int getLeaveValue(int mask) {
+        return leaveValues[mask];
+    }
+
+    /** Returns the number of tiles in the rack passed to setRack; masks run from 0 to (1 << getRackSize()) - 1. */
+    public int getRackSize() {
+        return size;
+    }
+
+    /**
+     * Returns the tiles to exchange, as a mask, that keep the most valuable leave, or -1 if a bag of bagSize tiles is
+     * too small to exchange.
+     */
+    public int bestExchange(int bagSize) {
+        if (bagSize < 7) {
+            return -1;
+        }
+        int result = (1 << size) - 1;
+        for (int mask = 1; mask < 1 << size; mask++) {
+            if (leaveValues[mask] > leaveValues[result]) {
+                result = mask;
+            }
+        }
+        return result;
+    }
+
+    /** Returns the move that exchanges the tiles in mask. */
+    public ExchangeTiles exchange(int mask) {
+        boolean[] tiles = new boolean[7];
+        for (int i = 0; i < size; i++) {
+            tiles[i] = (mask & (1 << i)) != 0;
+        }
+        return new ExchangeTiles(tiles);
+    }
+
+    @Override
+    public void accept(char[] word, int length, int row, int column, Location direction, int score) {
+        int mask = 0;
+        for (int i = 0; i < length; i++) {
+            char c = word[i];
+            if (c != ' ') {
+                int slot = c < 'a' ? Rack.BLANK : c - 'a';
+                mask |= 1 << (first[slot] + used[slot]++);
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            char c = word[i];
+            if (c != ' ') {
+                used[c < 'a' ? Rack.BLANK : c - 'a'] = 0;
+            }
+        }
+        next.accept(word, length, row, column, direction, score + leaveValues[mask]);
+    }
+
+}
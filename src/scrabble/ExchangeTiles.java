@@ -17,6 +17,11 @@ public final class ExchangeTiles implements ScrabbleMove {
         this.tilesToExchange = tilesToExchange;
     }
 
+    /** Returns a copy of the array saying which tiles in the hand to exchange. */
+    public boolean[] getTilesToExchange() {
+        return tilesToExchange.clone();
+    }
+
     @Override
     public Location[] play(Board board, int playerNumber) throws IllegalMoveException {
         board.exchange(board.getHand(playerNumber), tilesToExchange);
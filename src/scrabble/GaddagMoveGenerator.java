@@ -0,0 +1,276 @@
+package scrabble;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Move generator built on a GADDAG (Gordon, 1994). Instead of trying every starting square, it starts only at anchor
+ * squares (empty squares next to a tile) and grows each word outward: first leftward (upward) from the anchor, then,
+ * after the GADDAG separator, rightward (downward). Every move it returns is legal, and its score is added up as its
+ * tiles are placed.
+ *
+ * To avoid finding a move twice, the leftward part never places a tile on another anchor; such a move is found from
+ * that anchor instead.
+ *
+ * A blank is tried on every square where a real tile is, but not on a square after a real tile of the same letter has
+ * already been placed on a square of the same CrossChecks.blankClass. Such a move scores the same as the one with the
+ * blank and the real tile swapped, which is found anyway.
+ *
+ * Once prepare has run, searchLine may be called from several threads at once (see ParallelMoveGenerator).
+ */
+public final class GaddagMoveGenerator implements LineMoveGenerator {
+
+    private static final int SQUARES = Board.WIDTH * Board.WIDTH;
+
+    /** Directions, indexed as in CrossChecks. */
+    private static final Location[] DIRECTIONS = {Location.HORIZONTAL, Location.VERTICAL};
+
+    private final CrossChecks crossChecks = new CrossChecks();
+
+    /** Contents of the board, indexed as in CrossChecks. */
+    private final char[] squares = new char[SQUARES];
+
+    private final boolean[] isAnchor = new boolean[SQUARES];
+
+    /** Number of each tile in the rack; index 26 is blanks. */
+    private final int[] rack = new int[27];
+
+    private CompactDawg gaddag;
+
+    /** Search state reused by generate, which searches one line at a time. */
+    private final Search sequential = new Search();
+
+    @Override
+    public void prepare(GateKeeper gateKeeper, Rack hand) {
+        Lexicon lexicon = gateKeeper.getLexicon();
+        gaddag = lexicon.getGaddag();
+        for (int square = 0; square < SQUARES; square++) {
+            squares[square] = gateKeeper.getSquare(square);
+        }
+        for (int slot = 0; slot < Rack.SLOTS; slot++) {
+            rack[slot] = hand.getCount(slot);
+        }
+        crossChecks.update(squares, lexicon.getDawg());
+        findAnchors(gateKeeper);
+    }
+
+    @Override
+    public void generate(GateKeeper gateKeeper, MoveConsumer consumer) {
+        prepare(gateKeeper);
+        for (int line = 0; line < LINES; line++) {
+            sequential.search(line, consumer);
+        }
+    }
+
+    /** Asks stop before each line. */
+    @Override
+    public boolean generate(GateKeeper gateKeeper, MoveConsumer consumer, BooleanSupplier stop) {
+        prepare(gateKeeper);
+        for (int line = 0; line < LINES; line++) {
+            if (stop.getAsBoolean()) {
+                return false;
+            }
+            sequential.search(line, consumer);
+        }
+        return true;
+    }
+
+    /** Lines 0 through 14 are the rows, searched for horizontal moves, and 15 through 29 the columns. */
+    @Override
+    public void searchLine(int line, MoveConsumer consumer) {
+        new Search().search(line, consumer);
+    }
+
+    @Override
+    public Location getDirection(int line) {
+        return DIRECTIONS[line / Board.WIDTH];
+    }
+
+    /**
+     * Marks the empty squares next to a tile, or just the center if the board is empty. Works a row at a time on the
+     * board's occupancy masks: a square is an anchor if it is empty and a neighboring bit in its own row, or the same
+     * bit in the row above or below, is set.
+     */
+    private void findAnchors(GateKeeper gateKeeper) {
+        int full = (1 << Board.WIDTH) - 1;
+        int above = 0;
+        int current = gateKeeper.getRowOccupancy(0);
+        boolean empty = true;
+        for (int row = 0; row < Board.WIDTH; row++) {
+            int below = row < Board.WIDTH - 1 ? gateKeeper.getRowOccupancy(row + 1) : 0;
+            int anchors = ~current & full & (above | below | (current << 1) | (current >>> 1));
+            for (int column = 0; column < Board.WIDTH; column++) {
+                isAnchor[row * Board.WIDTH + column] = (anchors & (1 << column)) != 0;
+            }
+            empty &= current == 0;
+            above = current;
+            current = below;
+        }
+        if (empty) {
+            isAnchor[Location.CENTER.getRow() * Board.WIDTH + Location.CENTER.getColumn()] = true;
+        }
+    }
+
+    private boolean isTile(int square) {
+        return CrossChecks.isTile(squares[square]);
+    }
+
+    /** State of the search of one line. Each thread searching lines needs its own. */
+    private final class Search {
+
+
+        /** Number of each tile left in the rack; index 26 is blanks. */
+        private final int[] rack = new int[27];
+
+        /** Tile placed at each position of the current line by the current partial move. */
+        private final char[] placed = new char[Board.WIDTH];
+
+        /**
+         * For each letter, the blank classes of the squares on which the current partial move has placed a real tile
+         * of that letter, one bit per class.
+         */
+        private final int[] realClasses = new int[26];
+
+        /** The move being passed to consumer, in the form MoveConsumer.accept expects. */
+        private final char[] word = new char[Board.WIDTH];
+
+        private MoveConsumer consumer;
+
+        /** Direction of the current line, 0 (horizontal) or 1 (vertical). */
+        private int direction;
+
+        /** Square at position 0 of the current line. */
+        private int lineStart;
+
+        /** Distance between squares at consecutive positions of the current line. */
+        private int step;
+
+        /** Position of the anchor being expanded. */
+        private int anchor;
+
+        /** Position of the first letter of the current partial move, once it has turned rightward. */
+        private int leftEnd;
+
+        /** Passes every move along line (numbered as in searchLine) to consumer. */
+        void search(int line, MoveConsumer consumer) {
+            System.arraycopy(GaddagMoveGenerator.this.rack, 0, rack, 0, rack.length);
+            Arrays.fill(realClasses, 0);
+            this.consumer = consumer;
+            direction = line / Board.WIDTH;
+            step = direction == 0 ? 1 : Board.WIDTH;
+            lineStart = direction == 0 ? (line % Board.WIDTH) * Board.WIDTH : line % Board.WIDTH;
+            for (anchor = 0; anchor < Board.WIDTH; anchor++) {
+                if (isAnchor[square(anchor)]) {
+                    extend(anchor, gaddag.root(), 0, 1, 0, 0);
+                }
+            }
+            this.consumer = null;
+        }
+
+        /** Returns the square at position in the current line. */
+        private int square(int position) {
+            return lineStart + position * step;
+        }
+
+        /** Returns true if position is off the board or empty. */
+        private boolean isOpen(int position) {
+            return position < 0 || position >= Board.WIDTH || !isTile(square(position));
+        }
+
+        /**
+         * Covers position, reached from node, with the tile already there or with each usable tile from the rack.
+         *
+         * @param main Points so far in the main word, before word multipliers.
+         * @param multiplier Product of the word multipliers under the tiles placed so far.
+         * @param cross Points so far in cross words.
+         * @param tiles Number of tiles placed so far.
+         */
+        private void extend(int position, int node, int main, int multiplier, int cross, int tiles) {
+            int square = square(position);
+            if (isTile(square)) {
+                int e = gaddag.findEdge(node, CrossChecks.letterOf(squares[square]));
+                if (e != CompactDawg.NONE) {
+                    advance(position, e, main + Board.VALUES[squares[square]], multiplier, cross, tiles);
+                }
+                return;
+            }
+            int allowed = crossChecks.get(direction, square);
+            int crossSum = crossChecks.crossSum(direction, square);
+            int letterMultiplier = Board.LETTER_MULTIPLIERS[square];
+            int wordMultiplier = Board.WORD_MULTIPLIERS[square];
+            int blankClass = 1 << crossChecks.blankClass(direction, square);
+            for (int e = node; node != 0; e++) {
+                int letter = gaddag.letter(e);
+                if (letter != CompactDawg.SEPARATOR && (allowed & (1 << letter)) != 0) {
+                    if (rack[26] > 0 && (realClasses[letter] & blankClass) == 0) {
+                        rack[26]--;
+                        placed[position] = (char) ('A' + letter);
+                        advance(position, e, main, multiplier * wordMultiplier,
+                                crossSum == CrossChecks.NO_CROSS_WORD ? cross : cross + crossSum * wordMultiplier,
+                                tiles + 1);
+                        rack[26]++;
+                    }
+                    if (rack[letter] > 0) {
+                        int classes = realClasses[letter];
+                        realClasses[letter] |= blankClass;
+                        rack[letter]--;
+                        placed[position] = (char) ('a' + letter);
+                        int points = Board.VALUES['a' + letter] * letterMultiplier;
+                        int crossPoints = crossSum == CrossChecks.NO_CROSS_WORD
+                                ? 0 : (crossSum + points) * wordMultiplier;
+                        advance(position, e, main + points, multiplier * wordMultiplier, cross + crossPoints,
+                                tiles + 1);
+                        rack[letter]++;
+                        realClasses[letter] = classes;
+                    }
+                }
+                if (gaddag.isLast(e)) {
+                    break;
+                }
+            }
+        }
+
+        /** Continues the search after covering position via edge e. The other arguments are as in extend. */
+        private void advance(int position, int e, int main, int multiplier, int cross, int tiles) {
+            int node = gaddag.child(e);
+            if (position <= anchor) { // Still growing leftward
+                boolean leftOpen = isOpen(position - 1);
+                if (gaddag.isWord(e) && leftOpen && isOpen(anchor + 1)) {
+                    record(position, anchor, main * multiplier + cross + (tiles == 7 ? 50 : 0));
+                }
+                if (node == 0) {
+                    return;
+                }
+                if (position > 0 && !isAnchor[square(position - 1)]) {
+                    extend(position - 1, node, main, multiplier, cross, tiles);
+                }
+                if (leftOpen && anchor + 1 < Board.WIDTH) { // Turn around
+                    int separator = gaddag.findEdge(node, CompactDawg.SEPARATOR);
+                    if (separator != CompactDawg.NONE) {
+                        leftEnd = position;
+                        extend(anchor + 1, gaddag.child(separator), main, multiplier, cross, tiles);
+                    }
+                }
+            } else { // Growing rightward
+                if (gaddag.isWord(e) && isOpen(position + 1)) {
+                    record(leftEnd, position, main * multiplier + cross + (tiles == 7 ? 50 : 0));
+                }
+                if (node != 0 && position + 1 < Board.WIDTH) {
+                    extend(position + 1, node, main, multiplier, cross, tiles);
+                }
+            }
+        }
+
+        /** Passes the move covering positions first through last of the current line to consumer. */
+        private void record(int first, int last, int score) {
+            for (int position = first; position <= last; position++) {
+                word[position - first] = isTile(square(position)) ? ' ' : placed[position];
+            }
+            int start = square(first);
+            consumer.accept(word, last - first + 1, start / Board.WIDTH, start % Board.WIDTH, DIRECTIONS[direction],
+                    score);
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package scrabble;
 
 import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Intermediary between a ScrabbleAI and a Board, allowing the former to get information it needs without allowing
@@ -32,6 +33,33 @@ public class GateKeeper {
         return board.getSquare(location);
     }
 
+    /**
+     * Returns the square numbered square (row * Board.WIDTH + column).
+     *
+     * @see Board#squareAt(int, int)
+     */
+    public char getSquare(int square) {
+        return board.getSquare(square);
+    }
+
+    /**
+     * Returns the occupied squares in row, as a mask with bit c set if there is a tile in column c.
+     *
+     * @see Board#getRowOccupancy(int)
+     */
+    public int getRowOccupancy(int row) {
+        return board.getRowOccupancy(row);
+    }
+
+    /**
+     * Returns the occupied squares in column, as a mask with bit r set if there is a tile in row r.
+     *
+     * @see Board#getColumnOccupancy(int)
+     */
+    public int getColumnOccupancy(int column) {
+        return board.getColumnOccupancy(column);
+    }
+
     /**
      * Throws an IllegalMoveException if it is not legal to play word at location in direction given the ScrabbleAI's
      * current hand. Has no effect otherwise. It is the ScrabbleAI's responsibility to call this before calling
@@ -41,16 +69,73 @@ public class GateKeeper {
         board.verifyLegality(word, location, direction, board.getHand(player));
     }
 
+    /**
+     * Returns Board.LEGAL if it is legal to play word at location in direction given the ScrabbleAI's current hand,
+     * otherwise a negative code saying why not. Like verifyLegality, but without throwing or allocating.
+     *
+     * @see Board#checkLegality(String, Location, Location, Rack)
+     */
+    public int checkLegality(String word, Location location, Location direction) {
+        return board.checkLegality(word, location, direction, board.getHand(player));
+    }
+
+    /**
+     * Returns the score for playing word at location in direction if that is legal given the ScrabbleAI's current
+     * hand, otherwise the negative code checkLegality would return.
+     */
+    public int tryScore(String word, Location location, Location direction) {
+        return board.tryScore(word, location, direction, board.getHand(player));
+    }
+
     /** Returns the score for playing word at location in direction. Assumes this is a legal play. */
     public int score(String word, Location location, Location direction) {
         return board.score(word, location, direction);
     }
 
-    /** Returns a copy of the ScrabbleAI's hand. */
+    /** Returns the set of legal words shared by every Board and ScrabbleAI. */
+    public Lexicon getLexicon() {
+        return Lexicon.get();
+    }
+
+    /**
+     * Returns the Board's Zobrist hash of the tiles on the board and the player to move, e.g. as a key for caching
+     * positions. Does not depend on either hand.
+     *
+     * @see Board#getHash()
+     */
+    public long getHash() {
+        return board.getHash();
+    }
+
+    /**
+     * Returns a snapshot of the game as the ScrabbleAI sees it, for simulations. The tiles it cannot see are redealt
+     * at random, so the opponent's hand and the order of the bag in the snapshot are not the real ones. Forks of the
+     * snapshot can be redealt again with Board.redrawHand.
+     */
+    public BoardSnapshot snapshot() {
+        Board copy = board.snapshot().fork();
+        copy.redrawHand(1 - player, ThreadLocalRandom.current());
+        return copy.snapshot();
+    }
+
+    /** Returns the number of tiles left in the bag. */
+    public int getBagSize() {
+        return board.getBagSize();
+    }
+
+    /**
+     * Returns a copy of the ScrabbleAI's hand. The tiles are in alphabetical order with blanks last, not in the order
+     * they were dealt.
+     */
     public ArrayList<Character> getHand() {
         return new ArrayList<Character>(board.getHand(player));
     }
 
+    /** Returns a copy of the ScrabbleAI's hand as a Rack, which answers questions about its contents faster. */
+    public Rack getRack() {
+        return new Rack(board.getHand(player));
+    }
+
     @Override
     public String toString() {
         return board.toString();
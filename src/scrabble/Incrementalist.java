@@ -1,7 +1,5 @@
 package scrabble;
 
-import java.util.ArrayList;
-
 /**
  * Dumb AI that picks the highest-scoring one-tile move. Plays a two-tile move on the first turn. Exchanges all of its
  * letters if it can't find any other move.
@@ -11,6 +9,9 @@ public class Incrementalist implements ScrabbleAI {
     /** When exchanging, always exchange everything. */
     private static final boolean[] ALL_TILES = {true, true, true, true, true, true, true};
 
+    /** Directions in which to try each word. */
+    private static final Location[] DIRECTIONS = {Location.HORIZONTAL, Location.VERTICAL};
+
     /** The GateKeeper through which this Incrementalist accesses the Board. */
     private GateKeeper gateKeeper;
 
@@ -29,30 +30,25 @@ public class Incrementalist implements ScrabbleAI {
 
     /** This is necessary for the first turn, as one-letter words are not allowed. */
     private ScrabbleMove findTwoTileMove() {
-        ArrayList<Character> hand = gateKeeper.getHand();
+        Rack hand = gateKeeper.getRack();
         String bestWord = null;
         int bestScore = -1;
         for (int i = 0; i < hand.size(); i++) {
             for (int j = 0; j < hand.size(); j++) {
                 if (i != j) {
-                    try {
-                        char a = hand.get(i);
-                        if (a == '_') {
-                            a = 'E'; // This could be improved slightly by trying all possibilities for the blank
-                        }
-                        char b = hand.get(j);
-                        if (b == '_') {
-                            b = 'E'; // This could be improved slightly by trying all possibilities for the blank
-                        }
-                        String word = "" + a + b;
-                        gateKeeper.verifyLegality(word, Location.CENTER, Location.HORIZONTAL);
-                        int score = gateKeeper.score(word, Location.CENTER, Location.HORIZONTAL);
-                        if (score > bestScore) {
-                            bestScore = score;
-                            bestWord = word;
-                        }
-                    } catch (IllegalMoveException e) {
-                        // It wasn't legal; go on to the next one
+                    char a = hand.get(i);
+                    if (a == '_') {
+                        a = 'E'; // This could be improved slightly by trying all possibilities for the blank
+                    }
+                    char b = hand.get(j);
+                    if (b == '_') {
+                        b = 'E'; // This could be improved slightly by trying all possibilities for the blank
+                    }
+                    String word = "" + a + b;
+                    int score = gateKeeper.tryScore(word, Location.CENTER, Location.HORIZONTAL); // Negative if illegal
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestWord = word;
                     }
                 }
             }
@@ -68,7 +64,7 @@ public class Incrementalist implements ScrabbleAI {
      * tile to the end of an existing word.
      */
     private ScrabbleMove findOneTileMove() {
-        ArrayList<Character> hand = gateKeeper.getHand();
+        Rack hand = gateKeeper.getRack();
         PlayWord bestMove = null;
         int bestScore = -1;
         for (int i = 0; i < hand.size(); i++) {
@@ -79,17 +75,12 @@ public class Incrementalist implements ScrabbleAI {
             for (String word : new String[] {c + " ", " " + c}) {
                 for (int row = 0; row < Board.WIDTH; row++) {
                     for (int col = 0; col < Board.WIDTH; col++) {
-                        Location location = new Location(row, col);
-                        for (Location direction : new Location[] {Location.HORIZONTAL, Location.VERTICAL}) {
-                            try {
-                                gateKeeper.verifyLegality(word, location, direction);
-                                int score = gateKeeper.score(word, location, direction);
-                                if (score > bestScore) {
-                                    bestScore = score;
-                                    bestMove = new PlayWord(word, location, direction);
-                                }
-                            } catch (IllegalMoveException e) {
-                                // It wasn't legal; go on to the next one
+                        Location location = Location.of(row, col);
+                        for (Location direction : DIRECTIONS) {
+                            int score = gateKeeper.tryScore(word, location, direction); // Negative if illegal
+                            if (score > bestScore) {
+                                bestScore = score;
+                                bestMove = new PlayWord(word, location, direction);
                             }
                         }
                     }
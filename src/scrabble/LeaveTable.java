@@ -0,0 +1,236 @@
+package scrabble;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Value, in points, of the tiles a player keeps after a move (the leave), for every leave of up to MAX_TILES tiles
+ * that the tile distribution allows. Adding a move's leave value to its score gives its equity, a better guide to which
+ * move to make than the score alone.
+ *
+ * Leaves are indexed by rank: leaves are ordered by their counts of 'a', then 'b', ..., then blanks, and each gets its
+ * position in that order. Every rank below size() is a possible leave, so the table has no gaps.
+ *
+ * The values come from a compact binary file, LEAVE_FILE, written by LeaveTrainer from self-play games. Layout
+ * (big-endian): magic, format version, MAX_TILES, number of entries, then one byte per entry, the value in half points.
+ * Without that file, values come from rough hand-set tile values instead (see DEFAULT_VALUES).
+ *
+ * Immutable and safe to use from any number of threads.
+ */
+public final class LeaveTable {
+
+    /** Trained table loaded by get, if present. */
+    public static final String LEAVE_FILE = "leaves.bin";
+
+    /** Largest leave in the table: a whole rack, kept by passing. */
+    public static final int MAX_TILES = 7;
+
+    /** "LEAV" */
+    private static final int MAGIC = 0x4C454156;
+
+    /** Bump whenever the layout or the ranking changes. */
+    private static final int VERSION = 1;
+
+    /** Bytes before the first entry. */
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4;
+
+    /**
+     * Rough value of keeping one tile, by slot (as in Rack), used when there is no trained table. Blanks and S make
+     * almost any word, while Q, V and W are hard to place.
+     */
+    private static final double[] DEFAULT_VALUES = {
+            1, -2, 0.5, 0.5, 3.5, -2, -2, 1, -0.5, -1.5, -0.5, 0, 0.5, // a-m
+            0.5, -1, -0.5, -7, 1.5, 8, 0, -3.5, -5.5, -4, 3.5, -0.5, 5, // n-z
+            25}; // blank
+
+    /** Rough cost, used when there is no trained table, of each tile beyond the first of the same kind. */
+    private static final double DEFAULT_DUPLICATE_PENALTY = 4;
+
+    /** Most tiles of each slot that a leave can hold: the number in the game, up to MAX_TILES. */
+    private static final int[] LIMITS = new int[Rack.SLOTS];
+
+    /**
+     * OFFSETS[slot][room][count]: number of leaves that come before any leave with count tiles of slot, among those
+     * agreeing on the earlier slots and leaving room tiles for slot and the later ones.
+     */
+    private static final int[][][] OFFSETS = new int[Rack.SLOTS][MAX_TILES + 1][MAX_TILES + 2];
+
+    /** Number of possible leaves. */
+    private static final int SIZE;
+
+    static {
+        for (char tile : Board.ALL_TILES.toCharArray()) {
+            LIMITS[Rack.slotOf(tile)]++;
+        }
+        for (int slot = 0; slot < Rack.SLOTS; slot++) {
+            LIMITS[slot] = Math.min(LIMITS[slot], MAX_TILES);
+        }
+        // leaves[slot][room]: number of ways to hold at most room tiles from slot and later slots
+        int[][] leaves = new int[Rack.SLOTS + 1][MAX_TILES + 1];
+        Arrays.fill(leaves[Rack.SLOTS], 1);
+        for (int slot = Rack.SLOTS - 1; slot >= 0; slot--) {
+            for (int room = 0; room <= MAX_TILES; room++) {
+                for (int count = 0; count <= Math.min(LIMITS[slot], room); count++) {
+                    OFFSETS[slot][room][count + 1] = OFFSETS[slot][room][count] + leaves[slot + 1][room - count];
+                }
+                leaves[slot][room] = OFFSETS[slot][room][Math.min(LIMITS[slot], room) + 1];
+            }
+        }
+        SIZE = leaves[0][MAX_TILES];
+    }
+
+    /** Shared instance, loaded on first use. */
+    private static final class Holder {
+        static final LeaveTable INSTANCE = load(Paths.get(LEAVE_FILE));
+    }
+
+    /** Values in half points, indexed by rank, or null to use the default values. */
+    private final ByteBuffer values;
+
+    private LeaveTable(ByteBuffer values) {
+        this.values = values;
+    }
+
+    /** Returns the shared table: LEAVE_FILE if that exists and is readable, otherwise the default values. */
+    public static LeaveTable get() {
+        return Holder.INSTANCE;
+    }
+
+    /** Returns a table of the default values, whatever LEAVE_FILE holds. */
+    public static LeaveTable defaults() {
+        return new LeaveTable(null);
+    }
+
+    /** Returns the number of possible leaves, and so of entries in the table. */
+    public static int size() {
+        return SIZE;
+    }
+
+    /** Returns the most tiles of slot that a leave can hold. */
+    static int limit(int slot) {
+        return LIMITS[slot];
+    }
+
+    /**
+     * Returns the rank of the leave holding counts[slot] tiles of each slot (as in Rack). The leave must be possible:
+     * at most MAX_TILES tiles, and no more of any tile than the game has.
+     */
+    public static int rank(int[] counts) {
+        int result = 0;
+        int room = MAX_TILES;
+        for (int slot = 0; slot < Rack.SLOTS; slot++) {
+            int count = counts[slot];
+            if (count > LIMITS[slot] || count > room) {
+                throw new IllegalArgumentException("Impossible leave");
+            }
+            result += OFFSETS[slot][room][count];
+            room -= count;
+        }
+        return result;
+    }
+
+    /** Returns the rank of leave. */
+    public static int rank(Rack leave) {
+        int result = 0;
+        int room = MAX_TILES;
+        for (int slot = 0; slot < Rack.SLOTS; slot++) {
+            int count = leave.getCount(slot);
+            if (count > LIMITS[slot] || count > room) {
+                throw new IllegalArgumentException("Impossible leave: " + leave);
+            }
+            result += OFFSETS[slot][room][count];
+            room -= count;
+        }
+        return result;
+    }
+
+    /** Returns the value in points of the leave holding counts[slot] tiles of each slot. */
+    public double value(int[] counts) {
+        if (values == null) {
+            return defaultValue(counts);
+        }
+        return values.get(HEADER_SIZE + rank(counts)) / 2.0;
+    }
+
+    /** Returns the value in points of leave. */
+    public double value(Rack leave) {
+        if (values == null) {
+            double result = 0;
+            for (int slot = 0; slot < Rack.SLOTS; slot++) {
+                result += defaultValue(slot, leave.getCount(slot));
+            }
+            return result;
+        }
+        return values.get(HEADER_SIZE + rank(leave)) / 2.0;
+    }
+
+    /** Returns the default value of a leave: the sum of its tiles' DEFAULT_VALUES, less duplicate penalties. */
+    static double defaultValue(int[] counts) {
+        double result = 0;
+        for (int slot = 0; slot < Rack.SLOTS; slot++) {
+            result += defaultValue(slot, counts[slot]);
+        }
+        return result;
+    }
+
+    /** Returns the default value of keeping count tiles of slot. */
+    private static double defaultValue(int slot, int count) {
+        return count == 0 ? 0 : DEFAULT_VALUES[slot] * count - DEFAULT_DUPLICATE_PENALTY * (count - 1);
+    }
+
+    /**
+     * Returns the table in file, or one of the default values if file is missing, unreadable, or was written for a
+     * different format version.
+     */
+    private static LeaveTable load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return defaults();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_SIZE + (long) SIZE) {
+                return defaults();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != MAX_TILES
+                    || buffer.getInt(12) != SIZE) {
+                return defaults();
+            }
+            return new LeaveTable(buffer);
+        } catch (IOException e) {
+            return defaults(); // Unreadable; fall back to the default values
+        }
+    }
+
+    /**
+     * Writes a table to file. Values are in points, indexed by rank, and are rounded to the nearest half point and
+     * clamped to what a byte holds.
+     */
+    public static void write(double[] values, String file) throws IOException {
+        if (values.length != SIZE) {
+            throw new IllegalArgumentException("Need " + SIZE + " values, got " + values.length);
+        }
+        Path temporary = Paths.get(file + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(MAX_TILES);
+            out.writeInt(SIZE);
+            for (double value : values) {
+                out.writeByte((int) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, Math.round(value * 2))));
+            }
+        }
+        // Replace in one step so that a concurrently starting JVM never maps a half-written file
+        Files.move(temporary, Paths.get(file), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
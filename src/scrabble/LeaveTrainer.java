@@ -0,0 +1,141 @@
+package scrabble;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Offline job that fits a LeaveTable from self-play. It works in two steps, so that logs from many runs (or machines)
+ * can be pooled before fitting:
+ *
+ * record games log: plays games between two copies of the team AI (using the current LeaveTable) and appends one line
+ * per turn to log: the leave the player kept, then the points that player scored on their next turn.
+ *
+ * fit log [table]: sets each leave's value to how much more than average its holders scored on their next turn, and
+ * writes the table (default LeaveTable.LEAVE_FILE). Leaves seen only a few times are pulled toward their default value
+ * (see LeaveTable), and leaves never seen keep it.
+ */
+public class LeaveTrainer {
+
+    /** Observations of a leave that count as much as its default value when fitting. */
+    private static final double PRIOR_WEIGHT = 25;
+
+    public static void main(String[] args) throws IOException, IllegalMoveException {
+        if (args.length >= 3 && args[0].equals("record")) {
+            record(Integer.parseInt(args[1]), args[2]);
+        } else if (args.length >= 2 && args[0].equals("fit")) {
+            fit(args[1], args.length >= 3 ? args[2] : LeaveTable.LEAVE_FILE);
+        } else {
+            StdOut.println("Usage: LeaveTrainer record <games> <log> | LeaveTrainer fit <log> [table]");
+        }
+    }
+
+    /** Plays games self-play games, appending their turns to log. */
+    private static void record(int games, String log) throws IOException, IllegalMoveException {
+        ScrabbleAI[] players = {new ScrabbleTeamProjectScrabbleTeamProject(), new ScrabbleTeamProjectScrabbleTeamProject()};
+        int turns = 0;
+        try (PrintWriter out = new PrintWriter(new FileWriter(log, true))) {
+            for (int game = 0; game < games; game++) {
+                Board board = new Board();
+                players[0].setGateKeeper(new GateKeeper(board, 0));
+                players[1].setGateKeeper(new GateKeeper(board, 1));
+                String[] leaves = new String[2]; // Leave each player kept on their previous turn
+                while (!board.gameIsOver()) {
+                    int player = board.getCurrentPlayer();
+                    int before = board.getScore(player);
+                    ScrabbleMove move = players[player].chooseMove();
+                    Rack leave = new Rack(board.getHand(player));
+                    if (move instanceof PlayWord) {
+                        leave.removeWord(((PlayWord) move).getWord());
+                    } else {
+                        boolean[] exchanged = ((ExchangeTiles) move).getTilesToExchange();
+                        Rack hand = board.getHand(player);
+                        for (int i = 0; i < hand.size(); i++) {
+                            if (exchanged[i]) {
+                                leave.removeTile(hand.get(i));
+                            }
+                        }
+                    }
+                    move.play(board, player);
+                    if (leaves[player] != null) {
+                        out.println(leaves[player] + " " + (board.getScore(player) - before));
+                        turns++;
+                    }
+                    leaves[player] = leave.isEmpty() ? "-" : toString(leave);
+                }
+            }
+        }
+        StdOut.println("Recorded " + turns + " turns from " + games + " games in " + log);
+    }
+
+    /** Returns the tiles of rack as a string, e.g. "aert_". */
+    private static String toString(Rack rack) {
+        StringBuilder result = new StringBuilder();
+        for (char tile : rack) {
+            result.append(tile);
+        }
+        return result.toString();
+    }
+
+    /** Fits a table to the turns in log and writes it to table. */
+    private static void fit(String log, String table) throws IOException {
+        double[] sums = new double[LeaveTable.size()];
+        int[] counts = new int[LeaveTable.size()];
+        double total = 0;
+        int turns = 0;
+        In in = new In(log);
+        int[] tiles = new int[Rack.SLOTS];
+        while (!in.isEmpty()) {
+            String leave = in.readString();
+            int points = in.readInt();
+            Arrays.fill(tiles, 0);
+            if (!leave.equals("-")) {
+                for (char tile : leave.toCharArray()) {
+                    tiles[Rack.slotOf(tile)]++;
+                }
+            }
+            int rank = LeaveTable.rank(tiles);
+            sums[rank] += points;
+            counts[rank]++;
+            total += points;
+            turns++;
+        }
+        double mean = turns == 0 ? 0 : total / turns;
+        double[] values = new double[LeaveTable.size()];
+        fill(values, sums, counts, mean, new int[Rack.SLOTS], 0, LeaveTable.MAX_TILES);
+        int seen = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                seen++;
+            }
+        }
+        LeaveTable.write(values, table);
+        StdOut.printf("Fitted %d leaves from %d turns (mean %.1f points per turn); wrote %s%n", seen, turns, mean,
+                table);
+    }
+
+    /**
+     * Sets values for every leave that agrees with tiles on the slots before slot and has at most room more tiles:
+     * the leave's default value, moved toward its observed advantage over mean in proportion to how often it was
+     * seen.
+     */
+    private static void fill(double[] values, double[] sums, int[] counts, double mean, int[] tiles, int slot,
+                             int room) {
+        if (slot == Rack.SLOTS) {
+            int rank = LeaveTable.rank(tiles);
+            double prior = LeaveTable.defaultValue(tiles);
+            values[rank] = (PRIOR_WEIGHT * prior + sums[rank] - counts[rank] * mean) / (PRIOR_WEIGHT + counts[rank]);
+            return;
+        }
+        for (int count = 0; count <= Math.min(room, LeaveTable.limit(slot)); count++) {
+            tiles[slot] = count;
+            fill(values, sums, counts, mean, tiles, slot + 1, room - count);
+        }
+        tiles[slot] = 0;
+    }
+
+}
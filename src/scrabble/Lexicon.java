@@ -0,0 +1,79 @@
+package scrabble;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The set of legal words, loaded once per JVM and shared by the Board, every GateKeeper, and every ScrabbleAI.
+ * Immutable and safe to use from any number of threads.
+ *
+ * Loading happens on the first call to get(), or in the background after preload(). Either way it happens exactly
+ * once; callers that arrive while it is in progress wait for it to finish.
+ */
+public final class Lexicon {
+
+    /** Word list from which the shared instance is loaded. */
+    public static final String WORD_FILE = "words.txt";
+
+    /** Produces the shared instance. FutureTask runs its body at most once, however many threads call run(). */
+    private static final FutureTask<Lexicon> LOADER = new FutureTask<>(() -> new Lexicon(LexiconFile.load(WORD_FILE)));
+
+    /** Legal words. */
+    private final CompactDawg dawg;
+
+    /** GADDAG of the same words, only loaded if some generator asks for it. */
+    private final FutureTask<CompactDawg> gaddag = new FutureTask<>(() -> LexiconFile.loadGaddag(WORD_FILE));
+
+    private Lexicon(CompactDawg dawg) {
+        this.dawg = dawg;
+    }
+
+    /** Returns the shared Lexicon, loading it first if no other thread has done so. */
+    public static Lexicon get() {
+        return await(LOADER);
+    }
+
+    /** Runs task on this thread unless it has already run (or is running) elsewhere, then returns its result. */
+    private static <T> T await(FutureTask<T> task) {
+        task.run(); // Returns immediately if already done or being done elsewhere
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Could not load " + WORD_FILE, e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Starts loading the shared Lexicon on a background thread, so that it is ready by the time it is needed. */
+    public static void preload() {
+        Thread loader = new Thread(LOADER, "lexicon-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /** Returns true if word (lower case) is legal. */
+    public boolean contains(CharSequence word) {
+        return dawg.contains(word);
+    }
+
+    /** Returns the word graph, for move generators. */
+    public CompactDawg getDawg() {
+        return dawg;
+    }
+
+    /** Returns the GADDAG of the same words, loading it first if necessary. */
+    public CompactDawg getGaddag() {
+        return await(gaddag);
+    }
+
+}
@@ -0,0 +1,167 @@
+package scrabble;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precompiled binary form of a word list. Run main once (or whenever words.txt changes) to write words.dawg next to
+ * words.txt; load then maps that file read-only instead of parsing the text file, so the word graph lives off-heap
+ * and is shared through the page cache by every JVM on the machine.
+ *
+ * Layout (big-endian): magic, format version, length and last-modified time of the source word list, then one
+ * section per graph (DAWG_SECTION, GADDAG_SECTION), each holding word count, root node id, edge count, and the packed
+ * edges of a CompactDawg. The DAWG serves both as the set of legal words and as the structure walked by move
+ * generators.
+ */
+public final class LexiconFile {
+
+    /** "SCRB" */
+    private static final int MAGIC = 0x53435242;
+
+    /** Bump whenever the layout or the edge encoding changes. */
+    private static final int VERSION = 2;
+
+    /** Bytes before the first section. */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+
+    /** Bytes in a section before its first edge. */
+    private static final int SECTION_HEADER_SIZE = 4 + 4 + 4;
+
+    /** Index of the word graph section. */
+    private static final int DAWG_SECTION = 0;
+
+    /** Index of the GADDAG section. */
+    private static final int GADDAG_SECTION = 1;
+
+    private LexiconFile() {
+        // Not instantiated
+    }
+
+    /** Returns the name of the binary file compiled from wordFile, e.g. words.dawg for words.txt. */
+    public static String binaryFileFor(String wordFile) {
+        int dot = wordFile.lastIndexOf('.');
+        return (dot > 0 ? wordFile.substring(0, dot) : wordFile) + ".dawg";
+    }
+
+    /**
+     * Returns the words in wordFile, mapped from its compiled binary file if that exists and is up to date, otherwise
+     * parsed from wordFile itself.
+     */
+    public static CompactDawg load(String wordFile) {
+        CompactDawg result = tryMap(wordFile, DAWG_SECTION);
+        return result != null ? result : CompactDawg.build(readWords(wordFile));
+    }
+
+    /** Like load, but returns the GADDAG of the words in wordFile. */
+    public static CompactDawg loadGaddag(String wordFile) {
+        CompactDawg result = tryMap(wordFile, GADDAG_SECTION);
+        return result != null ? result : CompactDawg.buildGaddag(readWords(wordFile));
+    }
+
+    /** Reads the text word list, one word per line. */
+    private static List<String> readWords(String wordFile) {
+        return Arrays.asList(new In(wordFile).readAllLines());
+    }
+
+    /** Returns the requested section of the compiled form of wordFile, or null if that is missing or stale. */
+    private static CompactDawg tryMap(String wordFile, int section) {
+        Path binary = Paths.get(binaryFileFor(wordFile));
+        if (!Files.isRegularFile(binary)) {
+            return null;
+        }
+        try {
+            return map(binary, Paths.get(wordFile), section);
+        } catch (IOException e) {
+            return null; // Unreadable; fall back to the text file
+        }
+    }
+
+    /**
+     * Maps one section of binary read-only. Returns null if it was compiled with a different format version or from a
+     * different version of source, or is truncated.
+     */
+    private static CompactDawg map(Path binary, Path source, int section) throws IOException {
+        try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long length = buffer.getLong();
+            long modified = buffer.getLong();
+            if (Files.isRegularFile(source)
+                    && (Files.size(source) != length || Files.getLastModifiedTime(source).toMillis() != modified)) {
+                return null; // Stale
+            }
+            for (int i = 0; ; i++) {
+                if (buffer.remaining() < SECTION_HEADER_SIZE) {
+                    return null;
+                }
+                int wordCount = buffer.getInt();
+                int root = buffer.getInt();
+                int edgeCount = buffer.getInt();
+                if (buffer.remaining() < 4L * edgeCount) {
+                    return null;
+                }
+                if (i == section) {
+                    ByteBuffer edges = buffer.slice();
+                    edges.limit(4 * edgeCount);
+                    return new CompactDawg(edges.asIntBuffer(), root, wordCount);
+                }
+                buffer.position(buffer.position() + 4 * edgeCount);
+            }
+        }
+    }
+
+    /** Compiles the text word list wordFile into binaryFile. */
+    public static void compile(String wordFile, String binaryFile) throws IOException {
+        Path source = Paths.get(wordFile);
+        List<String> words = readWords(wordFile);
+        Path temporary = Paths.get(binaryFile + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(source));
+            out.writeLong(Files.getLastModifiedTime(source).toMillis());
+            writeSection(out, CompactDawg.build(words));
+            writeSection(out, CompactDawg.buildGaddag(words));
+        }
+        // Replace in one step so that a concurrently starting JVM never maps a half-written file
+        Files.move(temporary, Paths.get(binaryFile), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeSection(DataOutputStream out, CompactDawg graph) throws IOException {
+        out.writeInt(graph.wordCount());
+        out.writeInt(graph.root());
+        out.writeInt(graph.size());
+        graph.writeEdges(out);
+    }
+
+    /**
+     * Offline compile step.
+     *
+     * @param args Optionally the word list to compile (default words.txt).
+     */
+    public static void main(String[] args) throws IOException {
+        String wordFile = args.length > 0 ? args[0] : "words.txt";
+        String binaryFile = binaryFileFor(wordFile);
+        compile(wordFile, binaryFile);
+        StdOut.println("Wrote " + binaryFile);
+    }
+
+}
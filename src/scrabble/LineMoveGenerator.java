@@ -0,0 +1,39 @@
+package scrabble;
+
+/**
+ * A MoveGenerator whose search splits into LINES independent parts, one per row or column, so that the parts can be
+ * searched in parallel (see ParallelMoveGenerator).
+ */
+public interface LineMoveGenerator extends MoveGenerator {
+
+    /** Number of lines: every row and every column. */
+    public static final int LINES = 2 * Board.WIDTH;
+
+    /**
+     * Reads the position behind gateKeeper and precomputes whatever searchLine needs. Must not run at the same time
+     * as any other method of this generator.
+     */
+    public default void prepare(GateKeeper gateKeeper) {
+        prepare(gateKeeper, gateKeeper.getRack());
+    }
+
+    /**
+     * Like prepare(GateKeeper), but searches for moves from rack rather than from the ScrabbleAI's own hand, e.g. to
+     * look ahead to a hand it will or might hold (see EndgameSolver). Does not keep rack.
+     */
+    public void prepare(GateKeeper gateKeeper, Rack rack);
+
+    /**
+     * Returns the direction of the moves in line. The lines of each direction are numbered in a block of Board.WIDTH,
+     * so line % Board.WIDTH is the row (for Location.HORIZONTAL) or column (for Location.VERTICAL) they lie along.
+     */
+    public Location getDirection(int line);
+
+    /**
+     * Passes the moves along line, in the position last given to prepare, to consumer. Safe to call from several
+     * threads at once, with different consumers. Calling it for lines 0 through LINES - 1 in order produces exactly
+     * the moves generate produces, in the same order.
+     */
+    public void searchLine(int line, MoveConsumer consumer);
+
+}
@@ -1,10 +1,11 @@
 package scrabble;
 
-import java.util.Objects;
-
 /**
  * A location on the Scrabble board, with row and column coordinates. Immutable. Row and column are 0-based from top
  * left.
+ *
+ * Locations on the board, and those just off its edges, are interned: of, neighbor, and antineighbor return the same
+ * instance each time instead of allocating a new one.
  */
 public class Location {
 
@@ -17,6 +18,21 @@ public class Location {
     /** The center square (which the first move must contain. */
     public static final Location CENTER = new Location(7, 7);
 
+    /** Interned locations, from row and column -1 through Board.WIDTH; see of. */
+    private static final Location[] CACHE = new Location[(Board.WIDTH + 2) * (Board.WIDTH + 2)];
+
+    static {
+        for (int row = -1; row <= Board.WIDTH; row++) {
+            for (int column = -1; column <= Board.WIDTH; column++) {
+                CACHE[cacheIndex(row, column)] = new Location(row, column);
+            }
+        }
+        // So that of() hands out the constants themselves
+        for (Location location : new Location[] {HORIZONTAL, VERTICAL, CENTER}) {
+            CACHE[cacheIndex(location.row, location.column)] = location;
+        }
+    }
+
     private final int row;
 
     private final int column;
@@ -26,6 +42,21 @@ public class Location {
         this.column = column;
     }
 
+    /**
+     * Returns the Location at row and column. This is an interned instance if the location is on the board or just
+     * off an edge, otherwise a new one.
+     */
+    public static Location of(int row, int column) {
+        if (row < -1 || row > Board.WIDTH || column < -1 || column > Board.WIDTH) {
+            return new Location(row, column);
+        }
+        return CACHE[cacheIndex(row, column)];
+    }
+
+    private static int cacheIndex(int row, int column) {
+        return (row + 1) * (Board.WIDTH + 2) + column + 1;
+    }
+
     public int getRow() {
         return row;
     }
@@ -35,23 +66,23 @@ public class Location {
     }
 
     /**
-     * Returns a new Location which is offset from this by direction. For example, a.neighbor(HORIZONTAL) is the
+     * Returns the Location which is offset from this by direction. For example, a.neighbor(HORIZONTAL) is the
      * location to the right of a.
      *
      * @param direction HORIZONTAL or VERTICAL.
      */
     public Location neighbor(Location direction) {
-        return new Location(row + direction.row, column + direction.column);
+        return of(row + direction.row, column + direction.column);
     }
 
     /**
-     * Returns a new Location which is offset from this by the opposite of direction. For example,
+     * Returns the Location which is offset from this by the opposite of direction. For example,
      * a.neighbor(HORIZONTAL) is the location to the left of a.
      *
      * @param direction HORIZONTAL or VERTICAL.
      */
     public Location antineighbor(Location direction) {
-        return new Location(row - direction.row, column - direction.column);
+        return of(row - direction.row, column - direction.column);
     }
 
     /**
@@ -84,7 +115,7 @@ public class Location {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        return 31 * row + column;
     }
 
     @Override
@@ -0,0 +1,346 @@
+package scrabble;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * AI that looks one reply ahead by simulation. It takes the highest-scoring candidate moves, and the exchange that
+ * keeps the most valuable leave (as the team AI would pick it) when the bag is big enough to exchange, then plays
+ * each of them on many sampled positions until its time budget runs out. In each sample the tiles it cannot see (the
+ * opponent's hand and the bag) are redealt at random, and the opponent answers with its highest-scoring reply. The
+ * candidate with the best mean equity is chosen: its score (none, for the exchange) minus that of the reply, plus the
+ * LeaveTable value of the tiles it keeps.
+ *
+ * Once the bag is empty there is nothing to sample: the tiles it cannot see are exactly the opponent's hand, so every
+ * simulation of a candidate would come out the same. Each candidate is then simulated once, and leaves are not
+ * counted, as no tiles will be drawn to go with them.
+ *
+ * Simulations run on a thread pool. Each worker forks its own Boards from one snapshot of the position and has its own
+ * move generator, so workers share nothing but the snapshot until their results are added up.
+ *
+ * The choice improves the longer it simulates, so chooseMove(long) and cancel cut it short with whatever the
+ * simulations so far favor.
+ */
+public class MonteCarloAI implements ScrabbleAI {
+
+    /** Default number of candidate moves to simulate. */
+    public static final int DEFAULT_CANDIDATES = 10;
+
+    /** Default time to spend on each move, in milliseconds. */
+    public static final long DEFAULT_BUDGET_MILLIS = 1000;
+
+    private static final boolean[] ALL_TILES = {true, true, true, true, true, true, true};
+
+    private final int candidates;
+
+    private final long budgetNanos;
+
+    private final ExecutorService executor;
+
+    /** Number of simulation tasks to run at once. */
+    private final int workers;
+
+    /** Finds the candidates, on the calling thread. */
+    private final MoveGenerator generator;
+
+    private final TopMovesConsumer top;
+
+    /** Picks the exchange candidate; created on first use so that creating an AI never waits for loading. */
+    private EquityConsumer equity;
+
+    /** Finds replies; one per worker thread, since a generator is only safe for one thread at a time. */
+    private final ThreadLocal<MoveGenerator> replyGenerators;
+
+    private GateKeeper gateKeeper;
+
+    private boolean verbose;
+
+    /** Set by cancel to stop the simulations in progress. */
+    private volatile boolean cancelled;
+
+    /** Simulations run while choosing the last move. */
+    private long lastSimulations;
+
+    /** Wall-clock time spent simulating the last move, in nanoseconds. */
+    private long lastNanos;
+
+    /** Simulates DEFAULT_CANDIDATES candidates for DEFAULT_BUDGET_MILLIS per move, on the common ForkJoinPool. */
+    public MonteCarloAI() {
+        this(DEFAULT_CANDIDATES, DEFAULT_BUDGET_MILLIS);
+    }
+
+    /** Simulates candidates candidates for budgetMillis per move, on the common ForkJoinPool. */
+    public MonteCarloAI(int candidates, long budgetMillis) {
+        this(candidates, budgetMillis, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Simulates candidates candidates for budgetMillis per move, running workers tasks at once on executor, with the
+     * team AI's default engine. The caller remains responsible for shutting executor down.
+     */
+    public MonteCarloAI(int candidates, long budgetMillis, ExecutorService executor, int workers) {
+        this(candidates, budgetMillis, executor, workers, ScrabbleTeamProjectScrabbleTeamProject.DEFAULT_ENGINE);
+    }
+
+    /** As MonteCarloAI(int, long, ExecutorService, int), but finds candidates and replies with engine. */
+    public MonteCarloAI(int candidates, long budgetMillis, ExecutorService executor, int workers,
+                        ScrabbleTeamProjectScrabbleTeamProject.Engine engine) {
+        if (candidates < 1 || workers < 1) {
+            throw new IllegalArgumentException("Need at least one candidate and one worker");
+        }
+        this.candidates = candidates;
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.executor = executor;
+        this.workers = workers;
+        generator = ScrabbleTeamProjectScrabbleTeamProject.createGenerator(engine);
+        replyGenerators = ThreadLocal.withInitial(() -> ScrabbleTeamProjectScrabbleTeamProject.createGenerator(engine));
+        top = new TopMovesConsumer(candidates);
+    }
+
+    /** Turns printing of the number and rate of simulations after each move on or off. */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /** Returns the number of simulations run while choosing the last move. */
+    public long getLastSimulations() {
+        return lastSimulations;
+    }
+
+    /** Returns the number of simulations per second while choosing the last move. */
+    public double getLastSimulationsPerSecond() {
+        return lastNanos == 0 ? 0 : lastSimulations * 1e9 / lastNanos;
+    }
+
+    @Override
+    public void setGateKeeper(GateKeeper gateKeeper) {
+        this.gateKeeper = gateKeeper;
+    }
+
+    @Override
+    public ScrabbleMove chooseMove() {
+        return chooseMove(System.nanoTime() + budgetNanos);
+    }
+
+    /** Simulates until deadline, whatever the budget this AI was created with. */
+    @Override
+    public ScrabbleMove chooseMove(long deadline) {
+        cancelled = false;
+        top.clear();
+        generator.generate(gateKeeper, top, () -> cancelled || System.nanoTime() > deadline);
+        lastSimulations = 0;
+        lastNanos = 0;
+        Rack hand = gateKeeper.getRack();
+        List<Candidate> moves = new ArrayList<>(candidates + 1);
+        for (ScoredMove move : top.getMoves()) {
+            moves.add(new Candidate(move.getMove(), hand));
+        }
+        if (equity == null) {
+            equity = new EquityConsumer(LeaveTable.get(), top); // Only asked for leave values; no moves go through it
+        }
+        equity.setRack(hand);
+        int exchange = equity.bestExchange(gateKeeper.getBagSize());
+        if (exchange >= 0) {
+            moves.add(new Candidate(equity.exchange(exchange), hand));
+        }
+        if (moves.isEmpty()) {
+            return new ExchangeTiles(ALL_TILES);
+        }
+        if (moves.size() == 1 || cancelled || System.nanoTime() >= deadline) {
+            return moves.get(0).move; // Nothing to compare, or no time to compare them
+        }
+        long start = System.nanoTime();
+        BoardSnapshot snapshot = gateKeeper.snapshot();
+        boolean bagIsEmpty = snapshot.getBagSize() == 0;
+        long[][] totals = bagIsEmpty ? simulateOnce(snapshot, moves) : simulate(snapshot, moves, deadline);
+        lastNanos = System.nanoTime() - start;
+        int best = 0; // With no simulations at all, the highest-scoring move
+        double bestEquity = Double.NEGATIVE_INFINITY;
+        LeaveTable leaves = LeaveTable.get();
+        for (int i = 0; i < moves.size(); i++) {
+            lastSimulations += totals[1][i];
+            if (totals[1][i] > 0) {
+                double mean = (double) totals[0][i] / totals[1][i];
+                if (!bagIsEmpty) {
+                    mean += leaves.value(moves.get(i).leave);
+                }
+                if (mean > bestEquity) {
+                    best = i;
+                    bestEquity = mean;
+                }
+            }
+        }
+        if (verbose) {
+            StdOut.printf("%d simulations of %d candidates in %.0f ms (%.0f per second)%n", lastSimulations,
+                    moves.size(), lastNanos / 1e6, getLastSimulationsPerSecond());
+        }
+        return moves.get(best).move;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Simulates moves from snapshot until deadline (System.nanoTime), on workers tasks. Returns, for each move, the
+     * total equity over its simulations (totals[0]) and their number (totals[1]). If the calling thread is interrupted,
+     * returns early with what has been added up so far, and with the interrupt status set.
+     */
+    private long[][] simulate(BoardSnapshot snapshot, List<Candidate> moves, long deadline) {
+        List<Future<long[][]>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            int first = w % moves.size(); // Workers start on different candidates, so all get a similar share
+            tasks.add(executor.submit(() -> work(snapshot, moves, first, deadline)));
+        }
+        long[][] totals = new long[2][moves.size()];
+        try {
+            for (Future<long[][]> task : tasks) {
+                long[][] result = task.get();
+                for (int i = 0; i < moves.size(); i++) {
+                    totals[0][i] += result[0][i];
+                    totals[1][i] += result[1][i];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<long[][]> task : tasks) {
+                task.cancel(true); // Does nothing to tasks that are done
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Simulates each of moves once from snapshot, on the calling thread, and returns totals as described in simulate.
+     * Enough when the bag is empty, as every simulation of a move then comes out the same.
+     */
+    private long[][] simulateOnce(BoardSnapshot snapshot, List<Candidate> moves) {
+        BestMoveConsumer reply = new BestMoveConsumer();
+        Random random = ThreadLocalRandom.current();
+        long[][] totals = new long[2][moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            totals[0][i] = simulate(snapshot, moves.get(i), generator, reply, random);
+            totals[1][i] = 1;
+        }
+        return totals;
+    }
+
+    /**
+     * Body of one worker: simulates the moves in turn, starting with moves[first], until deadline or cancel. Always runs
+     * at least one simulation. Returns totals as described in simulate.
+     */
+    private long[][] work(BoardSnapshot snapshot, List<Candidate> moves, int first, long deadline) {
+        MoveGenerator replies = replyGenerators.get();
+        BestMoveConsumer reply = new BestMoveConsumer();
+        Random random = ThreadLocalRandom.current();
+        long[][] totals = new long[2][moves.size()];
+        int i = first;
+        do {
+            totals[0][i] += simulate(snapshot, moves.get(i), replies, reply, random);
+            totals[1][i]++;
+            i = (i + 1) % moves.size();
+        } while (System.nanoTime() < deadline && !cancelled && !Thread.currentThread().isInterrupted());
+        return totals;
+    }
+
+    /**
+     * Plays move on a fork of snapshot in which the opponent's hand has been redrawn, then lets the opponent make its
+     * highest-scoring reply. Returns how much the move gained on the opponent: the change in the difference between
+     * the scores, counting the end-of-game adjustment if the move ends the game.
+     */
+    private static int simulate(BoardSnapshot snapshot, Candidate move, MoveGenerator replies,
+                                BestMoveConsumer reply, Random random) {
+        Board board = snapshot.fork();
+        int player = snapshot.getCurrentPlayer();
+        int opponent = 1 - player;
+        board.redrawHand(opponent, random);
+        move.play(board);
+        int gain = (board.getScore(player) - board.getScore(opponent))
+                - (snapshot.getScore(player) - snapshot.getScore(opponent));
+        if (board.gameIsOver()) {
+            return gain;
+        }
+        reply.clear();
+        replies.generate(new GateKeeper(board, opponent), reply);
+        return reply.getScore() > 0 ? gain - reply.getScore() : gain;
+    }
+
+    /**
+     * A move to simulate, kept in the form Board.apply(char[], ...) takes if it is a play, so that simulations need not
+     * check the legality of a move the generator has already found legal.
+     */
+    private static final class Candidate {
+
+        final ScrabbleMove move;
+
+        /** Tiles kept if the move is made. */
+        final Rack leave;
+
+        /** The play's tiles, as in MoveConsumer.accept, or null for an exchange. */
+        private final char[] word;
+
+        private final int row;
+
+        private final int column;
+
+        private final Location direction;
+
+        /** A play from hand. */
+        Candidate(PlayWord play, Rack hand) {
+            move = play;
+            word = play.getWord().toCharArray();
+            row = play.getLocation().getRow();
+            column = play.getLocation().getColumn();
+            direction = play.getDirection();
+            leave = new Rack(hand);
+            leave.removeWord(play.getWord());
+        }
+
+        /** An exchange from hand. */
+        Candidate(ExchangeTiles exchange, Rack hand) {
+            move = exchange;
+            word = null;
+            row = 0;
+            column = 0;
+            direction = null;
+            leave = new Rack();
+            boolean[] tiles = exchange.getTilesToExchange();
+            for (int i = 0; i < hand.size(); i++) {
+                if (!tiles[i]) {
+                    leave.addTile(hand.get(i));
+                }
+            }
+        }
+
+        /** Makes this move for the player to move on board. */
+        void play(Board board) {
+            if (word != null) {
+                board.apply(word, word.length, row, column, direction);
+            } else {
+                int player = board.getCurrentPlayer();
+                board.exchange(board.getHand(player), ((ExchangeTiles) move).getTilesToExchange());
+            }
+        }
+
+    }
+
+}
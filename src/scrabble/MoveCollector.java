@@ -0,0 +1,20 @@
+package scrabble;
+
+import java.util.ArrayList;
+
+/** Keeps every move, in the order found. Memory grows with the number of moves; prefer a more selective consumer. */
+public final class MoveCollector implements MoveConsumer {
+
+    private final ArrayList<ScoredMove> moves = new ArrayList<>();
+
+    @Override
+    public void accept(char[] word, int length, int row, int column, Location direction, int score) {
+        moves.add(new ScoredMove(word, length, row, column, direction, score));
+    }
+
+    /** Returns the moves so far. The list is owned by this consumer. */
+    public ArrayList<ScoredMove> getMoves() {
+        return moves;
+    }
+
+}
@@ -0,0 +1,25 @@
+package scrabble;
+
+/**
+ * Receives the moves found by a MoveGenerator, one at a time, as they are found. Because nothing is collected unless
+ * the consumer collects it, generating moves needs the same amount of memory however many moves a position has.
+ *
+ * Ready-made consumers: BestMoveConsumer, TopMovesConsumer, MoveCounter, and MoveCollector.
+ */
+public interface MoveConsumer {
+
+    /**
+     * Called once for each move.
+     *
+     * @param word The tiles played, in the form PlayWord uses (a space for each tile already on the board, an upper
+     * case letter for a blank) in word[0] through word[length - 1]. The generator reuses this array, so it is only
+     * valid during this call; copy whatever should be kept.
+     * @param length Number of squares covered by the move.
+     * @param row Row of the first square of the move.
+     * @param column Column of the first square of the move.
+     * @param direction Location.HORIZONTAL or Location.VERTICAL.
+     * @param score Points the move scores, as GateKeeper.score would give them.
+     */
+    public void accept(char[] word, int length, int row, int column, Location direction, int score);
+
+}
@@ -0,0 +1,23 @@
+package scrabble;
+
+/** Counts moves without keeping any, e.g. to measure how many options a position leaves a player. */
+public final class MoveCounter implements MoveConsumer {
+
+    private int count;
+
+    @Override
+    public void accept(char[] word, int length, int row, int column, Location direction, int score) {
+        count++;
+    }
+
+    /** Returns the number of moves so far. */
+    public int getCount() {
+        return count;
+    }
+
+    /** Resets the count to zero. */
+    public void clear() {
+        count = 0;
+    }
+
+}
@@ -0,0 +1,34 @@
+package scrabble;
+
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+
+/** Finds candidate moves for a ScrabbleAI. */
+public interface MoveGenerator {
+
+    /**
+     * Passes each word placement available to the player behind gateKeeper to consumer, with the score
+     * GateKeeper.score would give it. Every move is legal by construction, so consumers need not check them with
+     * verifyLegality.
+     */
+    public void generate(GateKeeper gateKeeper, MoveConsumer consumer);
+
+    /**
+     * Like generate, but stops early once stop returns true, so that a caller with a deadline or a cancel request
+     * gets an answer soon. The moves passed to consumer before then are the same as generate would pass, in the same
+     * order. Returns true if every move was passed on. By default stop is never asked and every move is found;
+     * generators should check it at least every few milliseconds.
+     */
+    public default boolean generate(GateKeeper gateKeeper, MoveConsumer consumer, BooleanSupplier stop) {
+        generate(gateKeeper, consumer);
+        return true;
+    }
+
+    /** Returns all of the moves that generate would produce, in the same order. */
+    public default ArrayList<ScoredMove> findAllMoves(GateKeeper gateKeeper) {
+        MoveCollector collector = new MoveCollector();
+        generate(gateKeeper, collector);
+        return collector.getMoves();
+    }
+
+}
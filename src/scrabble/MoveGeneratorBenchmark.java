@@ -0,0 +1,116 @@
+package scrabble;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the speed of the move generation engines on mid-game positions. Positions come from games in which both
+ * players are the team AI, stopped after between MIN_TURNS and MAX_TURNS turns.
+ */
+public class MoveGeneratorBenchmark {
+
+    private static final int POSITIONS = 40;
+
+    private static final int MIN_TURNS = 6;
+
+    private static final int MAX_TURNS = 14;
+
+    /** Untimed passes over all positions by each engine, alternating, before any timing. */
+    private static final int WARM_UP_PASSES = 5;
+
+    /** Timed passes over all positions by each engine. The engines take turns going first from pass to pass. */
+    private static final int PASSES = 10;
+
+    public static void main(String[] args) throws IllegalMoveException {
+        long start = System.nanoTime();
+        Lexicon lexicon = Lexicon.get();
+        StdOut.printf("DAWG loaded in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        lexicon.getGaddag();
+        StdOut.printf("GADDAG loaded in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        List<GateKeeper> positions = makePositions();
+        double[] sequential = compare(positions, false);
+        StdOut.printf("GADDAG time / DAWG time: %.2f%n", sequential[1] / sequential[0]);
+        StdOut.printf("Parallel, %d processors:%n", Runtime.getRuntime().availableProcessors());
+        double[] parallel = compare(positions, true);
+        StdOut.printf("Speedup over sequential: DAWG %.1fx, GADDAG %.1fx%n", sequential[0] / parallel[0],
+                sequential[1] / parallel[1]);
+    }
+
+    /**
+     * Times both engines on positions, searching lines in parallel if parallel is true, and prints and returns their
+     * mean times in milliseconds per position, DAWG's first. The JIT compiler and the garbage collector see both
+     * engines before and during the timing, so neither is favored by going first or last.
+     */
+    private static double[] compare(List<GateKeeper> positions, boolean parallel) {
+        String[] names = {"DAWG", "GADDAG"};
+        MoveGenerator[] generators = {
+                createGenerator(ScrabbleTeamProjectScrabbleTeamProject.Engine.DAWG, parallel),
+                createGenerator(ScrabbleTeamProjectScrabbleTeamProject.Engine.GADDAG, parallel)
+        };
+        int[] found = new int[generators.length];
+        for (int pass = 0; pass < WARM_UP_PASSES; pass++) {
+            for (int g = 0; g < generators.length; g++) {
+                MoveCounter counter = new MoveCounter();
+                pass(generators[g], positions, counter);
+                found[g] = counter.getCount();
+            }
+        }
+        long[] nanos = new long[generators.length];
+        MoveCounter counter = new MoveCounter();
+        for (int pass = 0; pass < PASSES; pass++) {
+            for (int i = 0; i < generators.length; i++) {
+                int g = (pass + i) % generators.length;
+                nanos[g] += pass(generators[g], positions, counter);
+            }
+        }
+        double[] result = new double[generators.length];
+        for (int g = 0; g < generators.length; g++) {
+            result[g] = nanos[g] / 1e6 / PASSES / positions.size();
+            StdOut.printf("%-7s %8.3f ms per position, %6.1f moves per position%n", names[g], result[g],
+                    (double) found[g] / positions.size());
+        }
+        return result;
+    }
+
+    /** Generates the moves for every position, passing them to consumer, and returns the time taken in nanoseconds. */
+    private static long pass(MoveGenerator generator, List<GateKeeper> positions, MoveConsumer consumer) {
+        long start = System.nanoTime();
+        for (GateKeeper position : positions) {
+            generator.generate(position, consumer);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /** Plays partial games to produce mid-game positions, each seen from the player about to move. */
+    private static List<GateKeeper> makePositions() throws IllegalMoveException {
+        List<GateKeeper> result = new ArrayList<>();
+        ScrabbleAI[] players = {
+                new ScrabbleTeamProjectScrabbleTeamProject(ScrabbleTeamProjectScrabbleTeamProject.Engine.GADDAG),
+                new ScrabbleTeamProjectScrabbleTeamProject(ScrabbleTeamProjectScrabbleTeamProject.Engine.GADDAG)
+        };
+        for (long game = 0; result.size() < POSITIONS; game++) {
+            Board board = new Board(game); // Seeded, so that every run (and every build) times the same positions
+            players[0].setGateKeeper(new GateKeeper(board, 0));
+            players[1].setGateKeeper(new GateKeeper(board, 1));
+            int turns = MIN_TURNS + result.size() % (MAX_TURNS - MIN_TURNS + 1);
+            for (int turn = 0; turn < turns && !board.gameIsOver(); turn++) {
+                players[board.getCurrentPlayer()].chooseMove().play(board, board.getCurrentPlayer());
+            }
+            if (!board.gameIsOver()) {
+                result.add(new GateKeeper(board, board.getCurrentPlayer()));
+            }
+        }
+        return result;
+    }
+
+    private static MoveGenerator createGenerator(ScrabbleTeamProjectScrabbleTeamProject.Engine engine,
+                                                 boolean parallel) {
+        ScrabbleTeamProjectScrabbleTeamProject ai = new ScrabbleTeamProjectScrabbleTeamProject(engine);
+        ai.setParallel(parallel);
+        return ai.getGenerator();
+    }
+
+}
@@ -0,0 +1,41 @@
+package scrabble;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asks ScrabbleAIs for moves with a time limit. The AI is given the deadline, and is also sent ScrabbleAI.cancel when
+ * the deadline comes, in case it is not watching the clock closely enough (say, on a machine that is busy with other
+ * work). An AI that supports neither is still waited for.
+ */
+public final class MoveTimer {
+
+    /** Sends the cancels. One thread serves every caller; it is a daemon, so it never keeps the JVM running. */
+    private static final ScheduledThreadPoolExecutor ALARMS = new ScheduledThreadPoolExecutor(1, task -> {
+        Thread thread = Executors.defaultThreadFactory().newThread(task);
+        thread.setName("MoveTimer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        ALARMS.setRemoveOnCancelPolicy(true); // Most alarms are called off, and should not pile up until they expire
+    }
+
+    private MoveTimer() {
+    }
+
+    /** Returns ai's choice of move, asking for it within budgetMillis. */
+    public static ScrabbleMove chooseMove(ScrabbleAI ai, long budgetMillis) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        ScheduledFuture<?> alarm = ALARMS.schedule(ai::cancel, budgetMillis, TimeUnit.MILLISECONDS);
+        try {
+            return ai.chooseMove(deadline);
+        } finally {
+            alarm.cancel(false);
+        }
+    }
+
+}
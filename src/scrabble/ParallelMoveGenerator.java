@@ -0,0 +1,175 @@
+package scrabble;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Searches the lines of a LineMoveGenerator in parallel. Once the generator has prepared the position, each line is
+ * searched by its own task into its own buffer. The buffers are then passed to the consumer in line order, on the
+ * calling thread, so the consumer sees exactly the moves (in exactly the order) that the sequential generator would
+ * give it, and need not be thread-safe.
+ *
+ * Buffering means that memory grows with the number of moves, so this pays off when most moves are wanted (full
+ * generation, or positions with many moves) and there are idle cores.
+ *
+ * Not thread-safe: one thread at a time may call generate. Every line task started by a call has finished by the time
+ * that call returns, however it returns, so the next call may prepare the generator again.
+ */
+public final class ParallelMoveGenerator implements MoveGenerator {
+
+    private final LineMoveGenerator generator;
+
+    private final ExecutorService executor;
+
+    /** Searches with generator on the common ForkJoinPool. */
+    public ParallelMoveGenerator(LineMoveGenerator generator) {
+        this(generator, ForkJoinPool.commonPool());
+    }
+
+    /** Searches with generator on executor, which the caller remains responsible for shutting down. */
+    public ParallelMoveGenerator(LineMoveGenerator generator, ExecutorService executor) {
+        this.generator = generator;
+        this.executor = executor;
+    }
+
+    /**
+     * Passes the same moves as generator.generate would to consumer. If the calling thread is interrupted while
+     * waiting for a line, the remaining lines are abandoned and this returns early, with the interrupt status set.
+     */
+    @Override
+    public void generate(GateKeeper gateKeeper, MoveConsumer consumer) {
+        generate(gateKeeper, consumer, () -> false);
+    }
+
+    /**
+     * Asks stop before passing on each line's moves. Once it says to stop, the remaining lines are abandoned: those
+     * not yet started are skipped, and those being searched are waited for, since the generator's state cannot be
+     * changed under them. Also stops, with the interrupt status set, if the calling thread is interrupted.
+     */
+    @Override
+    public boolean generate(GateKeeper gateKeeper, MoveConsumer consumer, BooleanSupplier stop) {
+        generator.prepare(gateKeeper);
+        List<Future<MoveBuffer>> lines = new ArrayList<>(LineMoveGenerator.LINES);
+        AtomicBoolean abandoned = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(LineMoveGenerator.LINES); // Counts tasks done or skipped
+        try {
+            for (int line = 0; line < LineMoveGenerator.LINES; line++) {
+                int l = line;
+                lines.add(executor.submit(() -> {
+                    try {
+                        if (abandoned.get()) {
+                            return null;
+                        }
+                        MoveBuffer buffer = new MoveBuffer();
+                        generator.searchLine(l, buffer);
+                        return buffer;
+                    } finally {
+                        finished.countDown();
+                    }
+                }));
+            }
+            for (Future<MoveBuffer> line : lines) {
+                if (stop.getAsBoolean()) {
+                    return false;
+                }
+                line.get().replay(consumer);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            abandoned.set(true);
+            for (int line = lines.size(); line < LineMoveGenerator.LINES; line++) {
+                finished.countDown(); // Never submitted, because submitting threw
+            }
+            awaitUninterruptibly(finished);
+        }
+    }
+
+    /**
+     * Waits for latch to reach zero. An interrupt does not cut the wait short, since the tasks it waits for cannot be
+     * stopped, but the interrupt status is set again afterwards.
+     */
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Moves from one line, packed into arrays rather than one object per move. */
+    private static final class MoveBuffer implements MoveConsumer {
+
+        /** Fields per move in moves: length, row, column, direction (0 horizontal, 1 vertical), score. */
+        private static final int FIELDS = 5;
+
+        /** Tiles of all moves, one after another. */
+        private char[] letters = new char[64];
+
+        private int letterCount;
+
+        private int[] moves = new int[16 * FIELDS];
+
+        private int moveCount;
+
+        @Override
+        public void accept(char[] word, int length, int row, int column, Location direction, int score) {
+            if (letterCount + length > letters.length) {
+                letters = Arrays.copyOf(letters, Math.max(2 * letters.length, letterCount + length));
+            }
+            System.arraycopy(word, 0, letters, letterCount, length);
+            letterCount += length;
+            if ((moveCount + 1) * FIELDS > moves.length) {
+                moves = Arrays.copyOf(moves, 2 * moves.length);
+            }
+            int i = moveCount * FIELDS;
+            moves[i] = length;
+            moves[i + 1] = row;
+            moves[i + 2] = column;
+            moves[i + 3] = direction == Location.HORIZONTAL ? 0 : 1;
+            moves[i + 4] = score;
+            moveCount++;
+        }
+
+        /** Passes every move, in the order they were accepted, to consumer. */
+        void replay(MoveConsumer consumer) {
+            char[] word = new char[Board.WIDTH];
+            int offset = 0;
+            for (int i = 0; i < moveCount * FIELDS; i += FIELDS) {
+                int length = moves[i];
+                System.arraycopy(letters, offset, word, 0, length);
+                offset += length;
+                consumer.accept(word, length, moves[i + 1], moves[i + 2],
+                        moves[i + 3] == 0 ? Location.HORIZONTAL : Location.VERTICAL, moves[i + 4]);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,260 @@
+package scrabble;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * A player's hand, stored as the number of each tile rather than as a sequence. Tiles are as in Board: lower-case
+ * letters and _ for a blank. Checking whether a word can be drawn from the rack takes time proportional to the length
+ * of the word, and adding or removing a tile takes constant time.
+ *
+ * As a List, a Rack presents its tiles in alphabetical order with blanks last. Positions are therefore not preserved
+ * when tiles are added: a tile goes wherever its letter belongs. add(Character) and the remove methods are supported;
+ * set and add at a position are not.
+ *
+ * Not thread-safe: reads may run concurrently with each other, but not with changes.
+ */
+public final class Rack extends AbstractList<Character> {
+
+    /** Number of different tiles: 26 letters and the blank. */
+    public static final int SLOTS = 27;
+
+    /** Slot of the blank. */
+    public static final int BLANK = 26;
+
+    /** Random key for each slot, fixed so that hashes are the same from run to run. */
+    private static final long[] KEYS = new long[SLOTS];
+
+    static {
+        Random random = new Random(0x5241434BL);
+        for (int slot = 0; slot < SLOTS; slot++) {
+            KEYS[slot] = random.nextLong();
+        }
+    }
+
+    /** counts[slot]: number of tiles in slot; slot i is the letter 'a' + i, or the blank. */
+    private final int[] counts = new int[SLOTS];
+
+    private int size;
+
+    /** Sum over tiles here of KEYS[slot of tile], kept up to date as tiles come and go. */
+    private long hash;
+
+    /** Creates an empty Rack. */
+    public Rack() {
+    }
+
+    /** Creates a Rack holding the same tiles as that. */
+    public Rack(Rack that) {
+        System.arraycopy(that.counts, 0, counts, 0, SLOTS);
+        size = that.size;
+        hash = that.hash;
+    }
+
+    /** Creates a Rack holding tiles. */
+    public Rack(Collection<Character> tiles) {
+        addAll(tiles);
+    }
+
+    /** Returns the slot of tile, which is a lower-case letter or _. */
+    public static int slotOf(char tile) {
+        if (tile == '_') {
+            return BLANK;
+        }
+        if (tile >= 'a' && tile <= 'z') {
+            return tile - 'a';
+        }
+        throw new IllegalArgumentException("Not a tile: " + tile);
+    }
+
+    /** Returns the tile in slot. */
+    public static char tileAt(int slot) {
+        return slot == BLANK ? '_' : (char) ('a' + slot);
+    }
+
+    /** Returns the number of tiles in slot (see slotOf). */
+    public int getCount(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * Returns a 64-bit hash of the tiles here, regardless of order. Racks holding the same tiles have the same hash;
+     * racks holding different tiles almost never do. Takes constant time.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /** Adds tile. */
+    public void addTile(char tile) {
+        int slot = slotOf(tile);
+        counts[slot]++;
+        size++;
+        hash += KEYS[slot];
+        modCount++;
+    }
+
+    /** Removes one tile, if present. Returns true if it was. */
+    public boolean removeTile(char tile) {
+        int slot = slotOf(tile);
+        if (counts[slot] == 0) {
+            return false;
+        }
+        counts[slot]--;
+        size--;
+        hash -= KEYS[slot];
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns true if the tiles needed to play word (as submitted to Board: letters, upper case for blanks, and spaces
+     * for tiles already on the board) are all here. Returns false if word holds any other character, since no tile can
+     * supply it. Takes time proportional to the length of word, and changes nothing. For words that fit on the board
+     * it allocates nothing.
+     */
+    public boolean canSupply(String word) {
+        if (word.length() > Board.WIDTH) {
+            return canSupplyLong(word);
+        }
+        // Tiles needed so far from each slot, four bits per slot: slots 0 to 15 in low, the rest in high. No slot can
+        // need more than Board.WIDTH (15) tiles, so the counts never carry into each other.
+        long low = 0;
+        long high = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            int slot = slotForLetter(c);
+            if (slot < 0) {
+                return false;
+            }
+            int needed;
+            if (slot < 16) {
+                low += 1L << (4 * slot);
+                needed = (int) (low >>> (4 * slot)) & 15;
+            } else {
+                high += 1L << (4 * (slot - 16));
+                needed = (int) (high >>> (4 * (slot - 16))) & 15;
+            }
+            if (needed > counts[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** As canSupply, for words too long for its packed counts. */
+    private boolean canSupplyLong(String word) {
+        int[] needed = new int[SLOTS];
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            int slot = slotForLetter(c);
+            if (slot < 0 || ++needed[slot] > counts[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the tiles needed to play word (as in canSupply), or as many of them as are here. Characters no tile
+     * supplies are ignored.
+     */
+    public void removeWord(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c != ' ') {
+                int slot = slotForLetter(c);
+                if (slot >= 0 && counts[slot] > 0) {
+                    counts[slot]--;
+                    size--;
+                    hash -= KEYS[slot];
+                }
+            }
+        }
+        modCount++;
+    }
+
+    /** Returns the total value of the tiles here. */
+    public int getValue() {
+        int result = 0;
+        for (int slot = 0; slot < BLANK; slot++) {
+            result += counts[slot] * Board.VALUES['a' + slot];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the slot of the tile needed to play c from a submitted word: the blank for upper case, else c's own, or
+     * -1 if no tile can supply c.
+     */
+    private static int slotForLetter(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return BLANK;
+        }
+        return isTile(c) ? slotOf(c) : -1;
+    }
+
+    @Override
+    public Character get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        int slot = 0;
+        while (index >= counts[slot]) {
+            index -= counts[slot];
+            slot++;
+        }
+        return tileAt(slot);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Adds tile to the rack, at the position its letter belongs. */
+    @Override
+    public boolean add(Character tile) {
+        addTile(tile);
+        return true;
+    }
+
+    @Override
+    public Character remove(int index) {
+        char result = get(index);
+        removeTile(result);
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Character && isTile((Character) o) && removeTile((Character) o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Character && isTile((Character) o) && counts[slotOf((Character) o)] > 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            counts[slot] = 0;
+        }
+        size = 0;
+        hash = 0;
+        modCount++;
+    }
+
+    private static boolean isTile(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z');
+    }
+
+}
@@ -0,0 +1,28 @@
+package scrabble;
+
+/** A word placement together with the points it scores. Immutable. */
+public final class ScoredMove {
+
+    private final PlayWord move;
+
+    private final int score;
+
+    public ScoredMove(PlayWord move, int score) {
+        this.move = move;
+        this.score = score;
+    }
+
+    /** Makes a move from the arguments of MoveConsumer.accept, copying word. */
+    public ScoredMove(char[] word, int length, int row, int column, Location direction, int score) {
+        this(new PlayWord(new String(word, 0, length), Location.of(row, column), direction), score);
+    }
+
+    public PlayWord getMove() {
+        return move;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+}
@@ -26,6 +26,9 @@ public class Scrabble {
 
     private static final Color TILE_COLOR = new Color(251, 224, 174);
 
+    /** Time the AI is given for each move (see MoveTimer), so the window never waits long. */
+    private static final long AI_BUDGET_MILLIS = 2000;
+
     /** Keys that the user might press. */
     private static final List<Integer> KEYS = new ArrayList<>();
 
@@ -107,6 +110,7 @@ public class Scrabble {
     }
 
     public static void main(String[] args) throws IllegalMoveException {
+        Lexicon.preload(); // Load words while the window opens
         new Scrabble().run();
     }
 
@@ -122,7 +126,7 @@ public class Scrabble {
         while (mode != Mode.GAME_OVER) {
             if (mode == Mode.AI_PLAYING) {
                 draw();
-                ScrabbleMove move = ai.chooseMove();
+                ScrabbleMove move = MoveTimer.chooseMove(ai, AI_BUDGET_MILLIS);
                 // This fixes a security hole where the AI player returns an instance of a new class implementing
                 // ScrabbleMove, which then manipulates the Board.
                 if (!(move instanceof PlayWord || move instanceof ExchangeTiles)){
@@ -16,4 +16,20 @@ public interface ScrabbleAI {
      */
     public ScrabbleMove chooseMove();
 
+    /**
+     * Returns a good move, as chooseMove() does, but aims to return by deadline (a System.nanoTime() value). An AI
+     * that improves its choice over time should, at deadline or when cancel is called, stop and return the best move
+     * it has found so far. By default this ignores deadline and calls chooseMove().
+     */
+    public default ScrabbleMove chooseMove(long deadline) {
+        return chooseMove();
+    }
+
+    /**
+     * Asks a chooseMove call in progress, on another thread, to return as soon as it can with the best move it has
+     * found so far. Has no effect on later calls. Safe to call from any thread, at any time. By default does nothing.
+     */
+    public default void cancel() {
+    }
+
 }
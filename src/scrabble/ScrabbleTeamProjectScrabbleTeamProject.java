@@ -1,98 +1,31 @@
 package scrabble;
 
-import edu.princeton.cs.algs4.In;
-
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
 public class ScrabbleTeamProjectScrabbleTeamProject implements ScrabbleAI {
 
-    // We are implementing a new version of PlayWord so that we can access the word, location,
-    // and direction from outside the class.
-    private class Move implements ScrabbleMove {
-        /**
-         * The word to be played.
-         *
-         * @see Board
-         */
-        public String word;
-
-        /** The location of the first tile in the word (new or already on the board. */
-        public Location location;
-
-        /** The direction in which this word is to be played: Location.HORIZONTAL or Location.VERTICAL. */
-        public Location direction;
-
-        public Move(String word, Location location, Location direction) {
-            this.word = word;
-            this.location = location;
-            this.direction = direction;
-        }
-
-        @Override
-        public Location[] play(Board board, int playerNumber) throws IllegalMoveException {
-            board.play(word, location, direction, board.getHand(playerNumber));
-            return new Location[] {location, direction};
-        }
-    }
-
     /****
      * DAWG - Directed Acyclic Word Graph
      * This is the core of our bot. We are storing all valid words within it and then using the efficiency of it to
      * find all valid moves rapidly.
      */
-    private class Dawg {
-        // Vertex of a word tree
-        private class Dawg_v {
-            public boolean isWord;
-            public Map<Character, Dawg_v> children;
-
-            public Dawg_v(boolean isWord) {
-                this.isWord = isWord;
-                this.children = new HashMap();
-            }
-        }
-
-        // A word tree
-        // Just stores the head vertex of the tree,
-        // but all of the verification-related methods are also here
-        private class Dawg_tree {
-            public Dawg_v tree = new Dawg_v(false);
-
-            // Stores all the words from the file within the tree.
-            public Dawg_tree(In input) {
-                for (String word : input.readAllLines()) {
-                    Dawg_v head = tree;
-                    for (char letter : word.toCharArray()) {
-                        head.children.putIfAbsent(letter, new Dawg_v(false));
-                        head = head.children.get(letter);
-                    }
-                    head.isWord = true;
-                }
-            }
-
-            // Verifies word is in the DAWG
-            public boolean verify(String word) {
-                Dawg_v head = tree;
-                for (char letter : word.toCharArray()) {
-                    if (!head.children.containsKey(letter))
-                        return false;
-                    head = head.children.get(letter);
-                }
-                return head.isWord;
-            }
-        }
-
-        private Dawg_tree tree; // Main tree as loaded from words.txt
+    private static class Dawg implements LineMoveGenerator {
+        private CompactDawg tree; // Main graph, shared with every other AI through the Lexicon
         private int[][] rows; // All 30 rows/columns filled out with word "potentials"
+        private final char[] squares = new char[225]; // The board, row by row
+        private final CrossChecks crossChecks = new CrossChecks();
+
+        private final int[] rack = new int[27]; // How many of each letter (and, at 26, blanks) we have
+        private final Search sequential = new Search(); // Used by generate(), which does one line at a time
+        private int numS = 0; // How many s's are on the board
 
         // Special mask flags that we need
-        private static final char BLANK = 'z' + 1; // We have at least one blank tile in our hand
         private static final char ANCHOR = 'z' + 2; // This character is an anchor
         private static final char EMPTY = 'z' + 3; // This character can be empty, meaning the word can end here
         private static final char STATIC = 'z' + 4; // This character can not be changed
 
-        public Dawg(String file) {
-            this.tree = new Dawg_tree(new In(file));
+        public Dawg() {
             rows = new int[30][15];
         }
 
@@ -106,306 +39,433 @@ public class ScrabbleTeamProjectScrabbleTeamProject implements ScrabbleAI {
             return result != 0;
         }
 
-        // Is the tile "empty" (in the eyes of spelling words, so oob is empty in this case)
-        private static boolean isEmpty(GateKeeper board, int x, int y) {
-            Location loc = new Location(y, x);
-            if (!loc.isOnBoard()) return true;
-            char ch = board.getSquare(loc);
-            return " -+=#".indexOf(ch) != -1;
+        // Is the square "empty" (in the eyes of spelling words, so oob is empty in this case)
+        private boolean isEmpty(int row, int col) {
+            if (row < 0 || row >= 15 || col < 0 || col >= 15) return true;
+            return !CrossChecks.isTile(squares[row * 15 + col]);
         }
 
-        // Read the columns of the board into rows[][]
-        private void getCols(GateKeeper board, int subset) {
+        // Read the board into rows[][]. rows[x] is column x (for vertical words) and rows[x+15] is row x (for
+        // horizontal words). The letters allowed on each empty square come from the shared cross-check table.
+        private void getLines(GateKeeper board) {
+            numS = 0;
+            boolean emptyBoard = true;
+            for (int row = 0; row < 15; row++) {
+                for (int col = 0; col < 15; col++) {
+                    char ch = board.getSquare(row * 15 + col);
+                    squares[row * 15 + col] = ch;
+                    if (ch == 's')
+                        numS++;
+                    if (CrossChecks.isTile(ch))
+                        emptyBoard = false;
+                }
+            }
+            crossChecks.update(squares, tree);
             for (int x = 0; x < 15; x++) {
                 for (int y = 0; y < 15; y++) {
-                    char ch = board.getSquare(new Location(y, x));
-                    if (!isEmpty(board, x, y)) // If there's already a tile on the board here, it will be a static anchor
-                        rows[x][y] = toMask(ch) | toMask(ANCHOR) | toMask(STATIC);
-                    else { // If there's not a tile on the board here
-                        rows[x][y] = toMask(EMPTY); // We could keep it that way
-                        if (isEmpty(board, x - 1, y) && isEmpty(board, x + 1, y))
-                            rows[x][y] |= subset; // If there's no perpendicular restrictions, we could theoretically play anything from our hand here
-                        else { // Putting a word here would add on to an existing word perpendicularly to it
-                            rows[x][y] |= toMask(ANCHOR); // So if we put a tile here we wil be anchored
-                            int mx, nx;
-                            for (mx = 0; !isEmpty(board, x - mx - 1, y); mx++) {}
-                            String word = "";
-                            for (int l = 0; !isEmpty(board, x - mx + l, y); l++) // Read the word as it is
-                                word += board.getSquare(new Location(y, x - mx + l));
-                            for (nx = 0; !isEmpty(board, y, x + nx + 1); nx++) {}
-                            for (int l = nx-1; !isEmpty(board, y, x + nx - l); l--)
-                                word += board.getSquare(new Location(x + nx - l, y));
-                            for (char letter : "abcdefghijklmnopqrstuvwxyz".toCharArray())
-                                if (maskContains(subset, letter) || maskContains(subset, BLANK)) {
-                                    if (word.length()>mx)
-                                        word = word.substring(0, mx) + letter + word.substring(mx+1);
-                                    else
-                                        word = word.substring(0, mx) + letter;
-                                    if (tree.verify(word))
-                                        rows[x+15][y] |= toMask(letter);
-                                }
-                        }
-                    }
+                    rows[x][y] = lineMask(y, x, 1);
+                    rows[x + 15][y] = lineMask(x, y, 0);
                 }
             }
-            rows[7][7] |= toMask(ANCHOR); // Middle square is an anchor (only comes up on the first turn, though)
+            if (emptyBoard) { // Middle square is an anchor (only comes up on the first turn, though)
+                rows[7][7] |= toMask(ANCHOR);
+                rows[7 + 15][7] |= toMask(ANCHOR);
+            }
         }
 
-        // Read the rows of the board into rows[][] - see above getCols()
-        private void getRows(GateKeeper board, int subset) {
-            numS = 0;
-            for (int x = 0; x < 15; x++) {
-                for (int y = 0; y < 15; y++) {
-                    char ch = board.getSquare(new Location(x, y));
-                    if (ch == 's')
-                        numS++;
-                    if (!isEmpty(board, y, x))
-                        rows[x+15][y] = toMask(ch) | toMask(ANCHOR) | toMask(STATIC);
-                    else {
-                        rows[x+15][y] = toMask(EMPTY);
-                        if (isEmpty(board, y, x - 1) && isEmpty(board, y, x + 1))
-                            rows[x+15][y] |= subset;
-                        else {
-                            rows[x+15][y] |= toMask(ANCHOR);
-                            int mx, nx;
-                            for (mx = 0; !isEmpty(board, y, x - mx - 1); mx++) {}
-                            String word = "";
-                            for (int l = 0; !isEmpty(board, y, x - mx + l); l++)
-                                word += board.getSquare(new Location(x - mx + l, y));
-                            for (nx = 0; !isEmpty(board, y, x + nx + 1); nx++) {}
-                            for (int l = nx-1; !isEmpty(board, y, x + nx - l); l--)
-                                word += board.getSquare(new Location(x + nx - l, y));
-                            for (char letter : "abcdefghijklmnopqrstuvwxyz".toCharArray())
-                                if (maskContains(subset, letter) || maskContains(subset, BLANK)) {
-                                    if (word.length()>mx)
-                                        word = word.substring(0, mx) + letter + word.substring(mx+1);
-                                    else
-                                        word = word.substring(0, mx) + letter;
-                                    if (tree.verify(word))
-                                        rows[x+15][y] |= toMask(letter);
-                                }
+        // Mask for the square at row, col, for words in direction (0 across, 1 down)
+        private int lineMask(int row, int col, int direction) {
+            if (!isEmpty(row, col)) // If there's already a tile on the board here, it will be a static anchor
+                return toMask(Character.toLowerCase(squares[row * 15 + col])) | toMask(ANCHOR) | toMask(STATIC);
+            int mask = toMask(EMPTY) | crossChecks.get(direction, row * 15 + col);
+            if (!isEmpty(row - 1, col) || !isEmpty(row + 1, col) || !isEmpty(row, col - 1) || !isEmpty(row, col + 1))
+                mask |= toMask(ANCHOR); // Putting a tile here would connect to what is already on the board
+            return mask;
+        }
+
+        // The letter of a static square's mask
+        private static char staticLetter(int mask) {
+            return (char) ('a' + Integer.numberOfTrailingZeros(mask));
+        }
+
+        // The state of a search through one line, shared by every step of the recursion instead of being copied
+        // into each one. Each thread searching lines at the same time needs its own.
+        private class Search {
+            private final int[] hand = new int[27]; // How many of each letter (and, at 26, blanks) we have left
+            private final char[] word = new char[15]; // The partial word; spaces are tiles already on the board
+            private int length; // How much of word is filled in
+            private int line; // Which of the 30 lines we are in
+            private int anchor; // Position of the anchor in that line
+            private int start; // Position of word's first letter in that line
+            private MoveConsumer consumer; // Where finished moves go
+            // For each letter, one bit per CrossChecks.blankClass for the squares where we've put a real tile of
+            // that letter. A blank isn't tried on a square of the same class after that, since swapping the blank
+            // and the real tile scores the same, and that move is found anyway.
+            private final int[] realClasses = new int[26];
+
+            // Searches one row/column, Appel & Jacobson style. Only anchors start a search. Whatever is left of the
+            // anchor is either tiles already on the board, which we just read, or a "left part" from our hand that can
+            // be at most as long as the run of empty, non-anchor squares before the anchor (anything longer would
+            // reach another anchor, and is found from that anchor instead).
+            private void findAllWordsInLine(int line, MoveConsumer consumer) {
+                int[] masks = rows[line];
+                this.line = line;
+                this.consumer = consumer;
+                System.arraycopy(rack, 0, hand, 0, hand.length);
+                for (anchor = 0; anchor < 15; anchor++) {
+                    if (!maskContains(masks[anchor], ANCHOR) || maskContains(masks[anchor], STATIC)) continue;
+                    length = 0;
+                    Arrays.fill(realClasses, 0);
+                    if (anchor > 0 && maskContains(masks[anchor - 1], STATIC)) {
+                        // The left part is already on the board
+                        start = anchor;
+                        while (start > 0 && maskContains(masks[start - 1], STATIC)) start--;
+                        int node = tree.root();
+                        int edge = CompactDawg.NONE;
+                        int points = 0;
+                        for (int i = start; i < anchor; i++) {
+                            edge = tree.findEdge(node, staticLetter(masks[i]) - 'a');
+                            if (edge == CompactDawg.NONE) break;
+                            node = tree.child(edge);
+                            word[length++] = ' ';
+                            points += Board.VALUES[squares[squareOf(i)]];
                         }
+                        if (edge != CompactDawg.NONE)
+                            extendRight(node, tree.isWord(edge), points, 1, 0, 0);
+                    } else {
+                        int limit = 0;
+                        while (anchor - limit > 0 && !maskContains(masks[anchor - limit - 1], ANCHOR)) limit++;
+                        leftPart(tree.root(), limit);
                     }
                 }
             }
-            rows[7+15][7] |= toMask(ANCHOR);
-        }
 
-        // Basically traverse all possible combinations of letters that we could play down a row, and append all of the ones that work to moves
-        private void findAllWordsInRow(
-                ArrayList<Move> moves,
-                Move move,
-                String word,
-                boolean anchored,
-                int[] hand,
-                Dawg_v head,
-                ArrayList<Integer> remaining
-        ) {
-            boolean canEnd = true;
-            if (remaining.size() > 0) // If the next tile can be empty (or there is no next tile, i.e. off the board) we can end the word here
-                canEnd = maskContains(remaining.get(0), EMPTY);
-
-            if (canEnd && anchored && head.isWord) // But of course we also need to consider that we are both anchored, and that we have made a real word
-                moves.add(new Move(word, move.location, move.direction));
-
-            if (remaining.size() > 0) { // Now let's add one more character
-                anchored |= maskContains(remaining.get(0), ANCHOR); // If this next character is an anchor, then we'll be anchored
-                for (char letter : "abcdefghijklmnopqrstuvwxyz".toCharArray()) {
-                    if (maskContains(remaining.get(0), letter)) { // For each letter in the mask
-                        // If we don't have the letter (or any blanks) and it's not already on the board, then we can't play it
-                        if (hand[(int)(letter - 'a')] == 0 && hand[BLANK - 'a'] == 0 && !maskContains(remaining.get(0), STATIC)) continue;
-                        // If playing this letter would never lead to a word either, then we also don't bother
-                        if (!head.children.containsKey(letter)) continue;
-                        char letterToPlay = letter;
-                        // If we can't play the letter, we use a blank
-                        if (hand[(int)(letter - 'a')] == 0 && !maskContains(remaining.get(0), STATIC)) {
-                            letterToPlay = Character.toUpperCase(letter);
-                            letter = BLANK;
-                        }
-                        int[] newHand = hand.clone();
-                        char newLetter = ' ';
-                        // If we are putting down a letter, we take it out of our hand
-                        if (!maskContains(remaining.get(0), STATIC)) {
-                            newLetter = letter;
-                            newHand[(int)(letter - 'a')]--;
-                        }
-                        findAllWordsInRow( // Recurse with that letter added to the partial word
-                                moves,
-                                move,
-                                word + newLetter,
-                                anchored,
-                                newHand,
-                                head.children.get(letterToPlay),
-                                new ArrayList<Integer>(remaining.subList(1, remaining.size()))
-                        );
+            // The direction of the current line, as CrossChecks numbers them (0 across, 1 down)
+            private int direction() {
+                return line < 15 ? 1 : 0;
+            }
+
+            // The square (row * 15 + column) at position in the current line
+            private int squareOf(int position) {
+                return line < 15 ? position * 15 + line : (line - 15) * 15 + position;
+            }
+
+            // Tries every left part of up to limit tiles from our hand, each followed by extendRight() from the anchor
+            private void leftPart(int node, int limit) {
+                start = anchor - length;
+                // Each new letter shifts the whole left part over by one square, so its points are added up here rather
+                // than letter by letter. Left part squares never have cross words (they'd be anchors otherwise).
+                // The squares are only known now too, so this is also where we skip left parts with a blank after a real
+                // tile of the same letter and class (the swapped version comes up as well).
+                int points = 0;
+                int multiplier = 1;
+                boolean blanksFirst = true;
+                Arrays.fill(realClasses, 0);
+                for (int i = 0; i < length; i++) {
+                    int square = squareOf(start + i);
+                    int letter = Character.toLowerCase(word[i]) - 'a';
+                    int blankClass = 1 << crossChecks.blankClass(direction(), square);
+                    if (Character.isUpperCase(word[i]))
+                        blanksFirst &= (realClasses[letter] & blankClass) == 0;
+                    else
+                        realClasses[letter] |= blankClass;
+                    points += Board.VALUES[word[i]] * Board.LETTER_MULTIPLIERS[square];
+                    multiplier *= Board.WORD_MULTIPLIERS[square];
+                }
+                if (blanksFirst)
+                    extendRight(node, false, points, multiplier, 0, length);
+                if (limit == 0) return;
+                for (int edge = node; node != 0; edge++) {
+                    int letter = tree.letter(edge);
+                    if (hand[letter] > 0) { // Our own tile
+                        hand[letter]--;
+                        word[length++] = (char) ('a' + letter);
+                        leftPart(tree.child(edge), limit - 1);
+                        length--;
+                        hand[letter]++;
                     }
+                    if (hand[26] > 0) { // A blank standing in for it
+                        hand[26]--;
+                        word[length++] = (char) ('A' + letter);
+                        leftPart(tree.child(edge), limit - 1);
+                        length--;
+                        hand[26]++;
+                    }
+                    if (tree.isLast(edge)) break;
                 }
             }
-        }
 
-        // This is a helper method for dealing with blank tiles.
-        // If we used blanks, though, there are going to be a bunch of nasty permutations,
-        // so we have to go through them all to be sure we've captured every move.
-        // This will maximize scoring as if we have a move with two possible placements for the blank
-        // (for example: oCcur and ocCur), and one of the letters might be on a letter multiplier,
-        // this accounts for both options.
-        public ArrayList<Move> permuteMovesWithBlanks(ArrayList<Move> moves, ArrayList<Character> hand) {
-            ArrayList<Move> permuteMoves = new ArrayList<>();
-            for (Move move : moves) {
-                int openBlanks = 0;
-                for (char ch : hand) if (ch == ' ') openBlanks++;
-                String playedBlanks = "";
-                for (int i = 0; i < move.word.length(); i++)
-                    if (Character.isUpperCase(move.word.charAt(i))) {
-                        openBlanks--;
-                        playedBlanks = playedBlanks + Character.toLowerCase(move.word.charAt(i));
+            // Basically traverse all possible combinations of letters that we could play from here to the end of the
+            // line, and pass all of the ones that work (and cover the anchor) to the consumer. Everything we change on the
+            // way down (hand, word, length) is put back on the way out, so nothing is allocated at all; the consumer
+            // gets our word array and copies whatever it wants to keep.
+            // The score is added up along the way, so the moves come out already scored.
+            private void extendRight(
+                    int node, // Node of the graph reached by the letters so far
+                    boolean isWord, // Whether the letters so far spell a word
+                    int points, // Points in the main word so far, before word multipliers
+                    int multiplier, // Product of the word multipliers we've covered
+                    int cross, // Points in cross words so far
+                    int tiles // Number of tiles we've placed
+            ) {
+                int[] masks = rows[line];
+                int position = start + length;
+                // If the next tile can be empty (or there is no next tile, i.e. off the board) we can end the word here,
+                // as long as we've made a real word that covers the anchor
+                if (position > anchor && isWord && (position == 15 || maskContains(masks[position], EMPTY))) {
+                    int score = points * multiplier + cross + (tiles == 7 ? 50 : 0);
+                    if (line < 15)
+                        consumer.accept(word, length, start, line, Location.VERTICAL, score);
+                    else
+                        consumer.accept(word, length, line - 15, start, Location.HORIZONTAL, score);
+                }
+                if (position == 15 || node == 0) return;
+
+                int square = squareOf(position);
+                if (maskContains(masks[position], STATIC)) { // Tiles already on the board just get read
+                    int edge = tree.findEdge(node, staticLetter(masks[position]) - 'a');
+                    if (edge != CompactDawg.NONE) {
+                        word[length++] = ' ';
+                        extendRight(tree.child(edge), tree.isWord(edge), points + Board.VALUES[squares[square]], multiplier,
+                                cross, tiles);
+                        length--;
                     }
-                String word = move.word.toLowerCase();
-                switch (playedBlanks.length()) {
-
-                    case 0:
-                        permuteMoves.add(move);
-                        if (openBlanks > 0) {
-                            for (int i = 0; i < word.length(); i++) {
-                                String newWord = word.substring(0, i) + Character.toUpperCase(word.charAt(i)) + word.substring(i + 1);
-                                permuteMoves.add(new Move(newWord, move.location, move.direction));
-                                if (openBlanks == 2) for (int j = i; j < word.length(); j++) {
-                                    if (j != i) {
-                                        String newerWord = newWord.substring(0, j) + Character.toUpperCase(newWord.charAt(j)) + newWord.substring(j + 1);
-                                        permuteMoves.add(new Move(newerWord, move.location, move.direction));
-                                    }
-                                }
-                            }
+                    return;
+                }
+                int crossSum = crossChecks.crossSum(direction(), square);
+                int letterMultiplier = Board.LETTER_MULTIPLIERS[square];
+                int wordMultiplier = Board.WORD_MULTIPLIERS[square];
+                int blankClass = 1 << crossChecks.blankClass(direction(), square);
+                for (int edge = node; ; edge++) { // Now let's add one more letter, for each letter that could follow
+                    int letter = tree.letter(edge);
+                    // If it would make a bad cross word, we can't play it
+                    if ((masks[position] & (1 << letter)) != 0) {
+                        if (hand[letter] > 0) { // Our own tile
+                            int classes = realClasses[letter];
+                            realClasses[letter] |= blankClass;
+                            hand[letter]--;
+                            word[length++] = (char) ('a' + letter);
+                            int letterPoints = Board.VALUES['a' + letter] * letterMultiplier;
+                            int crossPoints = crossSum == CrossChecks.NO_CROSS_WORD ? 0 : (crossSum + letterPoints) * wordMultiplier;
+                            extendRight(tree.child(edge), tree.isWord(edge), points + letterPoints,
+                                    multiplier * wordMultiplier, cross + crossPoints, tiles + 1);
+                            length--;
+                            hand[letter]++;
+                            realClasses[letter] = classes;
                         }
-                        break;
-                    case 1:
-                        for (int i = 0; i < word.length(); i++) {
-                            if (word.charAt(i) == playedBlanks.charAt(0)) {
-                                String newWord = word.substring(0, i) + Character.toUpperCase(word.charAt(i)) + word.substring(i + 1);
-                                permuteMoves.add(new Move(newWord, move.location, move.direction));
-                                if (openBlanks == 1) {
-                                    for (int j = 0; j < word.length(); j++) {
-                                        if (Character.toLowerCase(word.charAt(j)) != playedBlanks.charAt(0) || j > i) {
-                                            String newerWord = newWord.substring(0, j) + Character.toUpperCase(newWord.charAt(j)) + newWord.substring(j + 1);
-                                            permuteMoves.add(new Move(newerWord, move.location, move.direction));
-                                        }
-                                    }
-                                }
-                            }
+                        if (hand[26] > 0 && (realClasses[letter] & blankClass) == 0) { // A blank, which is worth nothing
+                            hand[26]--;
+                            word[length++] = (char) ('A' + letter);
+                            int crossPoints = crossSum == CrossChecks.NO_CROSS_WORD ? 0 : crossSum * wordMultiplier;
+                            extendRight(tree.child(edge), tree.isWord(edge), points, multiplier * wordMultiplier,
+                                    cross + crossPoints, tiles + 1);
+                            length--;
+                            hand[26]++;
                         }
-                        break;
-                    case 2:
-                        for (int i = 0; i < word.length(); i++)
-                            for (int j = 0; j < word.length(); j++) {
-                                if (word.charAt(i) == playedBlanks.charAt(0) && word.charAt(j) == playedBlanks.charAt(1)) {
-                                    if (playedBlanks.charAt(0) != playedBlanks.charAt(1) || j > i) {
-                                        String newWord = word.substring(0, i) + Character.toUpperCase(word.charAt(i)) + word.substring(i + 1);
-                                        String newerWord = newWord.substring(0, j) + Character.toUpperCase(newWord.charAt(j)) + newWord.substring(j + 1);
-                                        permuteMoves.add(new Move(newerWord, move.location, move.direction));
-                                    }
-                                }
-                            }
-                        break;
+                    }
+                    if (tree.isLast(edge)) break;
                 }
             }
-            return permuteMoves;
         }
 
-        // This method finds all valid moves on the board and returns an ArrayList of each move.
-        public ArrayList<Move> findAllMoves(GateKeeper board) {
+        // Reads the board and the hand to play from, so that the lines can be searched
+        @Override
+        public void prepare(GateKeeper board, Rack hand) {
+            tree = board.getLexicon().getDawg(); // Looked up here rather than in the constructor so that creating an AI never waits for loading
             // Fill rows[][] with up-to-date information
-            ArrayList<Character> hand = board.getHand();
-            int subset = 0;
-            for (char letter : hand)
-                if (letter == ' ') subset |= toMask(BLANK);
-                else subset |= toMask(letter);
-            this.getRows(board, subset);
-            this.getCols(board, subset);
-
-            ArrayList<Move> moves = new ArrayList<>();
-            // Basically findAllWordsInRow() for every possible square/starting combination
-            for (int x = 0; x < 15; x++) {
-                for (int y = 0; y < 15; y++) {
-                    Move moveC = new Move("", new Location(y, x), new Location(1, 0));
-                    Move moveR = new Move("", new Location(x, y), new Location(0, 1));
-                    int[] letters = new int[27];
-                    for (char ch : hand)
-                        if (ch == ' ')
-                            letters[26]++;
-                        else {
-                            if (ch >= 'a')
-                                letters[(int) (ch - 'a')]++;
-                            if (ch == 's')
-                                numS++;
-                        }
+            this.getLines(board);
+            for (int slot = 0; slot < Rack.SLOTS; slot++)
+                rack[slot] = hand.getCount(slot);
+        }
 
-                    ArrayList<Integer> remainingC = new ArrayList<>();
-                    ArrayList<Integer> remainingR = new ArrayList<>();
-                    for (int i = y; i < 15; i++) {
-                        remainingC.add(rows[x][i]);
-                        remainingR.add(rows[x + 15][i]);
-                    }
-                    findAllWordsInRow(moves, moveC, "", false, letters.clone(), this.tree.tree, remainingC);
-                    findAllWordsInRow(moves, moveR, "", false, letters.clone(), this.tree.tree, remainingR);
-                }
-            }
+        // Line x is column x (vertical moves) and line x + 15 is row x (horizontal moves), as in rows[][]
+        @Override
+        public void searchLine(int line, MoveConsumer consumer) {
+            new Search().findAllWordsInLine(line, consumer);
+        }
+
+        @Override
+        public Location getDirection(int line) {
+            return line < 15 ? Location.VERTICAL : Location.HORIZONTAL;
+        }
 
-            return permuteMovesWithBlanks(moves, hand);
+        // This method finds all valid moves on the board and hands each one to consumer.
+        @Override
+        public void generate(GateKeeper board, MoveConsumer consumer) {
+            prepare(board);
+            for (int line = 0; line < LINES; line++)
+                sequential.findAllWordsInLine(line, consumer);
+        }
+
+        // Same, but gives up (returning false) as soon as stop says so; it's asked before each line
+        @Override
+        public boolean generate(GateKeeper board, MoveConsumer consumer, BooleanSupplier stop) {
+            prepare(board);
+            for (int line = 0; line < LINES; line++) {
+                if (stop.getAsBoolean())
+                    return false;
+                sequential.findAllWordsInLine(line, consumer);
+            }
+            return true;
         }
     }
 
     private static final boolean[] ALL_TILES = {true, true, true, true, true, true, true};
 
-    private int numS = 0;
+    /** Move generators this AI can use. */
+    public enum Engine {
+        DAWG, // Our own left-to-right generator (below)
+        GADDAG // GaddagMoveGenerator; about as fast (see MoveGeneratorBenchmark), but needs a larger lexicon
+    }
 
-    private Dawg dawg;
+    /** The engine used unless another is asked for, here and by the AIs built on our generators. */
+    public static final Engine DEFAULT_ENGINE = Engine.DAWG;
+
+    private final LineMoveGenerator lineGenerator; // The engine itself
+
+    private MoveGenerator generator; // The engine, or a ParallelMoveGenerator running it
+
+    private final BestMoveConsumer best = new BestMoveConsumer(); // Reused from turn to turn
+
+    private boolean debugging = false; // Check every generated move against the Board (slow)
+
+    private boolean usingLeaves = true; // Pick by score plus leave value (equity) rather than by score alone
+
+    private EquityConsumer equity; // Feeds best; created on first use so that creating an AI never waits for loading
 
     private GateKeeper gateKeeper;
+
+    private volatile boolean cancelled; // Set by cancel() to cut short the chooseMove in progress
+
     public ScrabbleTeamProjectScrabbleTeamProject() {
-        dawg = new Dawg("words.txt");
+        this(DEFAULT_ENGINE);
+    }
+
+    public ScrabbleTeamProjectScrabbleTeamProject(Engine engine) {
+        lineGenerator = createGenerator(engine);
+        generator = lineGenerator;
+    }
+
+    /**
+     * Turns parallel move generation on or off. When on, the rows and columns are searched at the same time on the
+     * common ForkJoinPool. The moves found, and so the moves chosen, are the same either way.
+     */
+    public void setParallel(boolean parallel) {
+        generator = parallel ? new ParallelMoveGenerator(lineGenerator) : lineGenerator;
+    }
+    /**
+     * Turns debug mode on or off. In debug mode, every generated move is checked with GateKeeper.verifyLegality and
+     * GateKeeper.score, and an IllegalStateException is thrown if the generator got either wrong.
+     */
+    public void setDebugging(boolean debugging) {
+        this.debugging = debugging;
+    }
+
+    /**
+     * Turns leave evaluation on or off. When on (the default), moves are compared by equity, their score plus the
+     * LeaveTable value of the tiles kept, and the AI exchanges the tiles that leave the best rack when no move has a
+     * higher equity. When off, the AI plays its highest-scoring move, or exchanges everything if it has none.
+     */
+    public void setUsingLeaves(boolean usingLeaves) {
+        this.usingLeaves = usingLeaves;
+    }
+
+    /**
+     * Returns a new generator using engine, as this AI and others (see MonteCarloAI, EndgameSolver) search with. Like
+     * any generator, it is only safe for one thread at a time.
+     */
+    public static LineMoveGenerator createGenerator(Engine engine) {
+        if (engine == Engine.GADDAG)
+            return new GaddagMoveGenerator();
+        return new Dawg();
+    }
 
+    /** Returns the move generator this AI uses, e.g. for benchmarking. */
+    MoveGenerator getGenerator() {
+        return generator;
     }
+
     @Override
     public void setGateKeeper(GateKeeper gateKeeper) {
         this.gateKeeper = gateKeeper;
     }
 
     /****
-     * Uses our DAWG to calculate all possible moves before sending back the highest scoring one.
-     * @return returns the highest scoring move in the form of a PlayWord object or an ExchangeTiles object for all our tiles.
+     * Uses our move generator to go through all possible moves, keeping only the best one (by equity, or by score if
+     * leaves are off).
+     * @return returns the best move in the form of a PlayWord object, or an ExchangeTiles object if exchanging is better
+     * or there is no move.
      */
     @Override
     public ScrabbleMove chooseMove() {
-        ArrayList<Move> moveList = dawg.findAllMoves(gateKeeper);
-        Move finalMove = null;
-        int finalMoveScore = 0;
-
-        for (Move currentMove : moveList) {
-            try {
-                gateKeeper.verifyLegality(currentMove.word, currentMove.location, currentMove.direction);
-                int currentMoveScore = gateKeeper.score(currentMove.word, currentMove.location, currentMove.direction);
-                if (finalMoveScore < currentMoveScore) {
-                    finalMoveScore = currentMoveScore;
-                    finalMove = currentMove;
-                }
-            }
-            catch (IllegalMoveException e) {
-                // continue to next move
-            }
-        }
+        cancelled = false;
+        return chooseMove(() -> cancelled);
+    }
 
+    /****
+     * Same as chooseMove(), but stops generating once deadline passes (or cancel() is called) and picks the best of
+     * the moves found by then.
+     */
+    @Override
+    public ScrabbleMove chooseMove(long deadline) {
+        cancelled = false;
+        return chooseMove(() -> cancelled || System.nanoTime() > deadline);
+    }
 
-        if (finalMove != null)
-            return new PlayWord(finalMove.word, finalMove.location, finalMove.direction);
-        else
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private ScrabbleMove chooseMove(BooleanSupplier stop) {
+        // The generator only produces legal moves, and scores them as it goes, so there's nothing left to check
+        best.clear();
+        MoveConsumer consumer = best;
+        if (usingLeaves) {
+            if (equity == null)
+                equity = new EquityConsumer(LeaveTable.get(), best);
+            equity.setRack(gateKeeper.getRack());
+            consumer = equity;
+        }
+        if (debugging) {
+            MoveConsumer checked = consumer;
+            generator.generate(gateKeeper, (word, length, row, column, direction, score) -> {
+                checkAgainstBoard(new ScoredMove(word, length, row, column, direction, score));
+                checked.accept(word, length, row, column, direction, score);
+            }, stop);
+        } else
+            generator.generate(gateKeeper, consumer, stop);
+
+        if (!usingLeaves)
+            return best.getScore() > 0 ? best.getBest().getMove() : new ExchangeTiles(ALL_TILES);
+        // The tiles to exchange (as a mask over hand positions) that keep the most valuable leave, or -1 if the bag is
+        // too small to exchange
+        int exchange = equity.bestExchange(gateKeeper.getBagSize());
+        if (best.getBest() == null && exchange < 0)
             return new ExchangeTiles(ALL_TILES);
+        if (best.getBest() == null || exchange >= 0 && equity.getLeaveValue(exchange) > best.getScore())
+            return equity.exchange(exchange);
+        return best.getBest().getMove();
+    }
+
+    // Debug mode: makes sure the board agrees that move is legal and scores what the generator says it does
+    private void checkAgainstBoard(ScoredMove move) {
+        PlayWord word = move.getMove();
+        try {
+            gateKeeper.verifyLegality(word.getWord(), word.getLocation(), word.getDirection());
+        } catch (IllegalMoveException e) {
+            throw new IllegalStateException("Generated illegal move \"" + word.getWord() + "\" at " + word.getLocation() + ": " + e.getMessage());
+        }
+        int score = gateKeeper.score(word.getWord(), word.getLocation(), word.getDirection());
+        if (score != move.getScore())
+            throw new IllegalStateException("Generated move \"" + word.getWord() + "\" at " + word.getLocation() + " scored " + move.getScore() + ", board says " + score);
     }
 
     // NOT USED - Didn't make any noticeable difference
     // Used to check if blanks
-    private boolean confirmWordWithBlanksIsHighValue(Move currentMove, int currentMoveScore) {
+    private boolean confirmWordWithBlanksIsHighValue(PlayWord currentMove, int currentMoveScore) {
         if (currentMoveScore > 50) return true;
-        for (char ch : currentMove.word.toCharArray()) {
+        for (char ch : currentMove.getWord().toCharArray()) {
             if (ch >= 65 && ch <= 90) {
                 return false;
             }
@@ -415,13 +475,13 @@ public class ScrabbleTeamProjectScrabbleTeamProject implements ScrabbleAI {
 
     // NOT USED - Didn't make any noticeable difference
     // This method makes sure that we aren't setting the other player up for an easy plural play.
-    private boolean confirmNotSettingUpPlural(Move currentMove, int currentMoveScore) {
-        if (numS == 4) return true;
-        StringBuilder newWord = new StringBuilder(currentMove.word);
+    private boolean confirmNotSettingUpPlural(PlayWord currentMove, int currentMoveScore) {
+        if (lineGenerator instanceof Dawg && ((Dawg) lineGenerator).numS == 4) return true;
+        StringBuilder newWord = new StringBuilder(currentMove.getWord());
         newWord.append("s");
         try {
-            gateKeeper.verifyLegality(newWord.toString(), currentMove.location, currentMove.direction);
-            int nextMoveScore = gateKeeper.score(newWord.toString(), currentMove.location, currentMove.direction);
+            gateKeeper.verifyLegality(newWord.toString(), currentMove.getLocation(), currentMove.getDirection());
+            int nextMoveScore = gateKeeper.score(newWord.toString(), currentMove.getLocation(), currentMove.getDirection());
             if (nextMoveScore > currentMoveScore+2) return false;
             else return true;
         }
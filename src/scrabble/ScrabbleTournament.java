@@ -2,22 +2,65 @@ package scrabble;
 
 import edu.princeton.cs.algs4.StdOut;
 
-/** A tournament between ScrabbleAIs. Edit the constructor to change the contestants. */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * A tournament between ScrabbleAIs. Edit the constructor to change the contestants.
+ *
+ * Contestants are given as factories rather than instances: AIs keep state from move to move and are not thread-safe,
+ * so every game gets fresh ones. That is what lets run(int, int) play many games at once. The lexicon is loaded once
+ * and shared by every game (see Lexicon).
+ *
+ * Usage: ScrabbleTournament plays two games per pair, printing each; ScrabbleTournament games [threads [seed]] plays
+ * games games per ordered pair (so 2 * games per pair) on threads threads (default: one per core) and prints
+ * statistics.
+ */
 public class ScrabbleTournament {
 
-    /** Contestants. */
-    private ScrabbleAI[] players;
+    /** Time each contestant is given for each move (see MoveTimer). */
+    public static final long MOVE_BUDGET_MILLIS = 1000;
+
+    /** z for a two-sided 95% confidence interval. */
+    private static final double Z_95 = 1.96;
+
+    /** Names of the contestants, for reports. */
+    private final List<String> names = new ArrayList<>();
+
+    /** Makers of the contestants, in the same order as names. */
+    private final List<Supplier<ScrabbleAI>> factories = new ArrayList<>();
 
     public ScrabbleTournament() {
         // List contestants here
-        players = new ScrabbleAI[] {
-                new ScrabbleTeamProjectScrabbleTeamProject(),
-                new Incrementalist()
-        };
+        add("Team project", ScrabbleTeamProjectScrabbleTeamProject::new);
+        add("Incrementalist", Incrementalist::new);
     }
 
     public static void main(String[] args) throws IllegalMoveException {
-        new ScrabbleTournament().run();
+        if (args.length == 0) {
+            new ScrabbleTournament().run();
+        } else {
+            int games = Integer.parseInt(args[0]);
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            if (args.length > 2) {
+                new ScrabbleTournament().run(games, threads, Long.parseLong(args[2]));
+            } else {
+                new ScrabbleTournament().run(games, threads);
+            }
+        }
+    }
+
+    /** Adds a contestant. factory must return a new, independent AI each time it is called. */
+    public void add(String name, Supplier<ScrabbleAI> factory) {
+        names.add(name);
+        factories.add(factory);
     }
 
     /**
@@ -25,18 +68,130 @@ public class ScrabbleTournament {
      * each contestant (including 0.5 wins for each tie).
      */
     public void run() throws IllegalMoveException {
-        double[] scores = new double[players.length];
-        for (int i = 0; i < players.length; i++) {
-            for (int j = 0; j < players.length; j++) {
+        double[] scores = new double[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = 0; j < names.size(); j++) {
                 if (i != j) {
-                    double[] result = playGame(players[i], players[j]);
+                    double[] result = playGame(factories.get(i).get(), factories.get(j).get());
                     scores[i] += result[0];
                     scores[j] += result[1];
                 }
             }
         }
-        for (int i = 0; i < players.length; i++) {
-            StdOut.println(players[i].toString() + ": " + scores[i]);
+        for (int i = 0; i < names.size(); i++) {
+            StdOut.println(names.get(i) + ": " + scores[i]);
+        }
+    }
+
+    /** Plays as run(int, int, long), with a random seed. */
+    public void run(int games, int threads) throws IllegalMoveException {
+        run(games, threads, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Plays games games for each ordered pair of contestants (so each pair meets 2 * games times), threads games at a
+     * time. The games are paired: each pair plays every bag twice, once from each seat, so that luck of the draw
+     * largely cancels out. The bags come from seed, so the same seed and contestants play with the same bags, but not
+     * necessarily the same games: AIs that search until a deadline, or that sample with their own randomness (as
+     * GateKeeper.snapshot and MonteCarloAI do), can choose differently from run to run, after which the same bag deals
+     * them different tiles. Prints, for each pair and then for each contestant over all its games, the share of games
+     * won (ties count half) and the mean score difference, each with a 95% confidence interval. The intervals treat
+     * each pair of games as one observation.
+     */
+    public void run(int games, int threads, long seed) throws IllegalMoveException {
+        Lexicon.get(); // Load once, before the games start sharing it
+        StdOut.println("Seed: " + seed);
+        int n = names.size();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<int[]>> results = new ArrayList<>(n * (n - 1) * games);
+        try {
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    Supplier<ScrabbleAI> a = factories.get(i);
+                    Supplier<ScrabbleAI> b = factories.get(j);
+                    for (int g = 0; g < games; g++) {
+                        long bag = seeds.nextLong();
+                        results.add(executor.submit(() -> play(a.get(), b.get(), bag)));
+                        results.add(executor.submit(() -> play(b.get(), a.get(), bag)));
+                    }
+                }
+            }
+            // wins[i][j], spreads[i][j]: contestant i's results against j, i < j, per pair of games
+            Tally[][] wins = new Tally[n][n];
+            Tally[][] spreads = new Tally[n][n];
+            Tally[] totalWins = new Tally[n];
+            Tally[] totalSpreads = new Tally[n];
+            for (int i = 0; i < n; i++) {
+                totalWins[i] = new Tally();
+                totalSpreads[i] = new Tally();
+                for (int j = i + 1; j < n; j++) {
+                    wins[i][j] = new Tally();
+                    spreads[i][j] = new Tally();
+                }
+            }
+            int next = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    for (int g = 0; g < games; g++) {
+                        int[] first = await(results.get(next++)); // i went first
+                        int[] second = await(results.get(next++)); // j went first
+                        int spreadFirst = first[0] - first[1];
+                        int spreadSecond = second[1] - second[0];
+                        double win = (winShare(spreadFirst) + winShare(spreadSecond)) / 2;
+                        double spread = (spreadFirst + spreadSecond) / 2.0;
+                        wins[i][j].add(win);
+                        spreads[i][j].add(spread);
+                        totalWins[i].add(win);
+                        totalSpreads[i].add(spread);
+                        totalWins[j].add(1 - win);
+                        totalSpreads[j].add(-spread);
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    StdOut.printf("%s vs %s: %s%n", names.get(i), names.get(j), report(wins[i][j], spreads[i][j]));
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                StdOut.printf("%s overall: %s%n", names.get(i), report(totalWins[i], totalSpreads[i]));
+            }
+        } finally {
+            executor.shutdownNow(); // Only games still running are left if something went wrong
+        }
+    }
+
+    /** Returns the tournament score of a game won by spread points: 1, 0.5 or 0. */
+    private static double winShare(int spread) {
+        return spread > 0 ? 1 : spread < 0 ? 0 : 0.5;
+    }
+
+    /** Describes results by pairs of games, e.g. "1000 games, won 61.2% +- 3.0%, mean spread +24.5 +- 4.1". */
+    private static String report(Tally wins, Tally spreads) {
+        return String.format("%d games, won %.1f%% +- %.1f%%, mean spread %+.1f +- %.1f", 2 * wins.count(),
+                100 * wins.mean(), 100 * wins.halfWidth(), spreads.mean(), spreads.halfWidth());
+    }
+
+    /** Returns the result of game, waiting for it if need be. */
+    private static int[] await(Future<int[]> game) throws IllegalMoveException {
+        try {
+            return game.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a game", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalMoveException) {
+                throw (IllegalMoveException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
         }
     }
 
@@ -47,16 +202,9 @@ public class ScrabbleTournament {
     public double[] playGame(ScrabbleAI a, ScrabbleAI b) throws IllegalMoveException {
         StdOut.println(a + " vs " + b + ":");
         Board board = new Board();
-        a.setGateKeeper(new GateKeeper(board, 0));
-        b.setGateKeeper(new GateKeeper(board, 1));
-        while (!board.gameIsOver()) {
-            playMove(board, a, 0);
-            if (!board.gameIsOver()) {
-                playMove(board, b, 1);
-            }
-        }
-        int s0 = board.getScore(0);
-        int s1 = board.getScore(1);
+        int[] scores = play(board, a, b);
+        int s0 = scores[0];
+        int s1 = scores[1];
         StdOut.print(board);
         StdOut.println("Final score: " + a + " " + s0 + ", " + b + " " + s1);
         StdOut.println();
@@ -70,11 +218,32 @@ public class ScrabbleTournament {
     }
 
     /**
-     * Asks player for a move and plays it on board.
+     * Plays a game between a (going first) and b, with the bag shuffled from seed, without printing anything, and
+     * returns their final scores.
+     */
+    public static int[] play(ScrabbleAI a, ScrabbleAI b, long seed) throws IllegalMoveException {
+        return play(new Board(seed), a, b);
+    }
+
+    /** Plays a game on board between a (going first) and b and returns their final scores. */
+    private static int[] play(Board board, ScrabbleAI a, ScrabbleAI b) throws IllegalMoveException {
+        a.setGateKeeper(new GateKeeper(board, 0));
+        b.setGateKeeper(new GateKeeper(board, 1));
+        while (!board.gameIsOver()) {
+            playMove(board, a, 0);
+            if (!board.gameIsOver()) {
+                playMove(board, b, 1);
+            }
+        }
+        return new int[] {board.getScore(0), board.getScore(1)};
+    }
+
+    /**
+     * Asks player for a move, within MOVE_BUDGET_MILLIS, and plays it on board.
      * @param playerNumber Player's place in the game turn order (0 or 1).
      */
-    public void playMove(Board board, ScrabbleAI player, int playerNumber) throws IllegalMoveException {
-        ScrabbleMove move = player.chooseMove();
+    public static void playMove(Board board, ScrabbleAI player, int playerNumber) throws IllegalMoveException {
+        ScrabbleMove move = MoveTimer.chooseMove(player, MOVE_BUDGET_MILLIS);
         // This fixes a security hole where the AI player returns an instance of a new class implementing ScrabbleMove,
         // which then manipulates the Board.
         if (!(move instanceof PlayWord || move instanceof ExchangeTiles)){
@@ -83,4 +252,38 @@ public class ScrabbleTournament {
         move.play(board, playerNumber);
     }
 
+    /** Running count, mean and variance of a series of observations. */
+    private static final class Tally {
+
+        private int count;
+
+        private double sum;
+
+        private double sumOfSquares;
+
+        void add(double x) {
+            count++;
+            sum += x;
+            sumOfSquares += x * x;
+        }
+
+        int count() {
+            return count;
+        }
+
+        double mean() {
+            return count == 0 ? Double.NaN : sum / count;
+        }
+
+        /** Returns half the width of the normal-approximation 95% confidence interval for the mean. */
+        double halfWidth() {
+            if (count < 2) {
+                return Double.NaN;
+            }
+            double variance = Math.max(0, (sumOfSquares - sum * sum / count) / (count - 1));
+            return Z_95 * Math.sqrt(variance / count);
+        }
+
+    }
+
 }
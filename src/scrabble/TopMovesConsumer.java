@@ -0,0 +1,137 @@
+package scrabble;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Keeps the k highest-scoring moves in a bounded heap. All of its storage is allocated up front, so accepting a move
+ * never allocates. Of several moves with the same score, those found first are kept.
+ */
+public final class TopMovesConsumer implements MoveConsumer {
+
+    private final int capacity;
+
+    /** Storage for up to capacity moves; slot i holds words[i], rows[i], and so on. */
+    private final char[][] words;
+
+    private final int[] lengths;
+
+    private final int[] rows;
+
+    private final int[] columns;
+
+    private final Location[] directions;
+
+    private final int[] scores;
+
+    /** Order in which the move in each slot was found, to break ties. */
+    private final long[] serials;
+
+    /**
+     * Slots in use, as a binary heap with the worst move (lowest score, latest found among equals) at heap[0].
+     */
+    private final int[] heap;
+
+    private int size;
+
+    private long serial;
+
+    /** @param k Maximum number of moves to keep; at least 1. */
+    public TopMovesConsumer(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1: " + k);
+        }
+        capacity = k;
+        words = new char[k][Board.WIDTH];
+        lengths = new int[k];
+        rows = new int[k];
+        columns = new int[k];
+        directions = new Location[k];
+        scores = new int[k];
+        serials = new long[k];
+        heap = new int[k];
+    }
+
+    @Override
+    public void accept(char[] word, int length, int row, int column, Location direction, int score) {
+        if (size == capacity && score <= scores[heap[0]]) {
+            return;
+        }
+        boolean growing = size < capacity;
+        int slot = growing ? size : heap[0]; // Either a free slot or the worst move's
+        System.arraycopy(word, 0, words[slot], 0, length);
+        lengths[slot] = length;
+        rows[slot] = row;
+        columns[slot] = column;
+        directions[slot] = direction;
+        scores[slot] = score;
+        serials[slot] = serial++;
+        if (growing) {
+            heap[size] = slot;
+            size++;
+            siftUp(size - 1);
+        } else {
+            siftDown(0);
+        }
+    }
+
+    /** Returns true if the move in slot a is worse than the one in slot b. */
+    private boolean worse(int a, int b) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && serials[a] > serials[b]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!worse(heap[i], heap[parent])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int worst = i;
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                if (worse(heap[child], heap[worst])) {
+                    worst = child;
+                }
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+    }
+
+    /** Returns the moves kept so far, best first. */
+    public ArrayList<ScoredMove> getMoves() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = heap[i];
+        }
+        Arrays.sort(order, (a, b) -> worse(a, b) ? 1 : worse(b, a) ? -1 : 0);
+        ArrayList<ScoredMove> result = new ArrayList<>(size);
+        for (int slot : order) {
+            result.add(new ScoredMove(words[slot], lengths[slot], rows[slot], columns[slot], directions[slot],
+                    scores[slot]));
+        }
+        return result;
+    }
+
+    /** Forgets every move so far, so that this consumer can be used again. */
+    public void clear() {
+        size = 0;
+        serial = 0;
+    }
+
+}
@@ -0,0 +1,52 @@
+package scrabble;
+
+/**
+ * What Board.apply changed, so that Board.undo can change it back: the squares covered, the tiles taken from and dealt
+ * to the player's hand, and the scores, player and pass count from before. An exchange also keeps the order of the
+ * bag, since it shuffles the bag.
+ *
+ * Only Board creates, fills and reads these.
+ */
+public final class UndoRecord {
+
+    /** Most tiles a move can place, take from a hand, or deal to one. */
+    private static final int MAX_TILES = 7;
+
+    /** Player who moved. */
+    final int player;
+
+    /** Scores of both players before the move. */
+    final int score0, score1;
+
+    final int numberOfPasses;
+
+    /** Number of moves applied (and not undone) once this one is, used to check that undos come in order. */
+    final int depth;
+
+    /** Squares on which the move placed tiles. */
+    final int[] squares = new int[MAX_TILES];
+
+    int squareCount;
+
+    /** Tiles taken from the hand, with _ for blanks. */
+    final char[] taken = new char[MAX_TILES];
+
+    int takenCount;
+
+    /** Tiles dealt from the bag, in the order they were drawn. */
+    final char[] dealt = new char[MAX_TILES];
+
+    int dealtCount;
+
+    /** Contents of the bag before the move, or null if the bag was not shuffled. */
+    char[] bag;
+
+    UndoRecord(int player, int score0, int score1, int numberOfPasses, int depth) {
+        this.player = player;
+        this.score0 = score0;
+        this.score1 = score1;
+        this.numberOfPasses = numberOfPasses;
+        this.depth = depth;
+    }
+
+}
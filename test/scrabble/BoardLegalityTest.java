@@ -0,0 +1,50 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardLegalityTest {
+
+    private static Rack rack(String tiles) {
+        Rack result = new Rack();
+        for (char tile : tiles.toCharArray()) {
+            result.addTile(tile);
+        }
+        return result;
+    }
+
+    @Test
+    void reportsEachRuleBroken() {
+        Board board = new Board();
+        Rack hand = rack("catsdog");
+        assertEquals(Board.LEGAL, board.checkLegality("cat", Location.of(7, 6), Location.HORIZONTAL, hand));
+        assertEquals(Board.TOO_SHORT, board.checkLegality("c", Location.CENTER, Location.HORIZONTAL, hand));
+        assertEquals(Board.NO_NEW_TILE, board.checkLegality("   ", Location.CENTER, Location.HORIZONTAL, hand));
+        assertEquals(Board.NOT_IN_HAND, board.checkLegality("cab", Location.of(7, 6), Location.HORIZONTAL, hand));
+        assertEquals(Board.BAD_PLACEMENT, board.checkLegality("cat", Location.of(7, 13), Location.HORIZONTAL, hand));
+        assertEquals(Board.NOT_CONNECTED, board.checkLegality("cat", Location.of(0, 0), Location.HORIZONTAL, hand));
+        assertEquals(Board.INVALID_WORD, board.checkLegality("tca", Location.of(7, 6), Location.HORIZONTAL, hand));
+    }
+
+    /** Characters that are neither letters nor spaces used to make the hand check throw. */
+    @Test
+    void rejectsNonTileCharactersWithoutThrowing() {
+        Board board = new Board();
+        Rack hand = rack("act_");
+        assertEquals(Board.NOT_IN_HAND, board.checkLegality("a1", Location.CENTER, Location.HORIZONTAL, hand));
+        assertEquals(Board.NOT_IN_HAND, board.tryScore("c-t", Location.of(7, 6), Location.HORIZONTAL, hand));
+        assertThrows(IllegalMoveException.class,
+                () -> board.verifyLegality("c-t", Location.of(7, 6), Location.HORIZONTAL, hand));
+    }
+
+    @Test
+    void rejectsBadPlayWordInGame() {
+        Board board = new Board(1);
+        assertThrows(IllegalMoveException.class,
+                () -> new PlayWord("a1", Location.CENTER, Location.HORIZONTAL).play(board, 0));
+        assertEquals(0, board.getCurrentPlayer());
+        assertEquals(7, board.getHand(0).size());
+    }
+
+}
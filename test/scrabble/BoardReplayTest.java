@@ -0,0 +1,61 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardReplayTest {
+
+    /** Plays a game between two team AIs on board and returns its moves. */
+    private static List<ScrabbleMove> play(Board board) throws IllegalMoveException {
+        ScrabbleTeamProjectScrabbleTeamProject ai = new ScrabbleTeamProjectScrabbleTeamProject();
+        List<ScrabbleMove> moves = new ArrayList<>();
+        while (!board.gameIsOver()) {
+            int player = board.getCurrentPlayer();
+            ai.setGateKeeper(new GateKeeper(board, player));
+            ScrabbleMove move = ai.chooseMove();
+            move.play(board, player);
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    @Test
+    void sameSeedDealsSameTiles() throws IllegalMoveException {
+        Board a = new Board(6);
+        Board b = new Board(6);
+        assertEquals(play(a).size(), play(b).size());
+        assertEquals(a.getDraws(), b.getDraws());
+        assertEquals(a.toString(), b.toString());
+        assertEquals(a.getScore(0), b.getScore(0));
+        assertEquals(a.getScore(1), b.getScore(1));
+    }
+
+    @Test
+    void replayingDrawsReproducesGame() throws IllegalMoveException {
+        Board original = new Board(7);
+        List<ScrabbleMove> moves = play(original);
+        Board replay = Board.replaying(original.getDraws());
+        assertEquals(original.getDraws().substring(0, 14), replay.getDraws());
+        for (ScrabbleMove move : moves) {
+            assertFalse(replay.gameIsOver());
+            move.play(replay, replay.getCurrentPlayer());
+        }
+        assertTrue(replay.gameIsOver());
+        assertEquals(original.getDraws(), replay.getDraws());
+        assertEquals(original.toString(), replay.toString());
+        assertEquals(original.getHand(0), replay.getHand(0));
+        assertEquals(original.getHand(1), replay.getHand(1));
+        assertEquals(original.getScore(0), replay.getScore(0));
+        assertEquals(original.getScore(1), replay.getScore(1));
+    }
+
+    @Test
+    void replayingRejectsTileNotInBag() {
+        assertThrows(IllegalStateException.class, () -> Board.replaying("zzzzzzz"));
+    }
+
+}
@@ -0,0 +1,66 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardScoreTest {
+
+    @Test
+    void firstWordDoublesOnCenter() {
+        Board board = new Board();
+        // c 3, a 1 on the center double word, t 1
+        assertEquals(10, board.score("cat", Location.of(7, 6), Location.HORIZONTAL));
+    }
+
+    @Test
+    void premiumsCountOnlyUnderNewTiles() {
+        Board board = new Board();
+        board.placeWord("cat", Location.of(7, 6), Location.HORIZONTAL);
+        // The center's double word is already covered
+        assertEquals(6, board.score("   s", Location.of(7, 6), Location.HORIZONTAL));
+    }
+
+    @Test
+    void bingoAddsFifty() {
+        Board board = new Board();
+        // r 1, e 1, t 1 doubled, a 1, i 1, n 1, s 1, all doubled by the center, plus 50
+        assertEquals(66, board.score("retains", Location.of(7, 1), Location.HORIZONTAL));
+    }
+
+    @Test
+    void scoresCrossWordsBeforeExistingTiles() {
+        Board board = new Board();
+        board.placeWord("at", Location.of(7, 7), Location.HORIZONTAL);
+        // bi: b 3, i 1 doubled = 5; ba: 3 + 1 = 4; it: 2 + 1 = 3
+        assertEquals(12, board.score("bi", Location.of(6, 7), Location.HORIZONTAL));
+    }
+
+    /**
+     * A new tile directly after exactly one existing tile forms a two-letter cross word. These used to score 0, as if
+     * they were the new tile alone.
+     */
+    @Test
+    void scoresCrossWordsAfterOneExistingTile() {
+        Board board = new Board();
+        board.placeWord("at", Location.of(7, 7), Location.HORIZONTAL);
+        // me: m 3, e 1 doubled = 5; am: 1 + 3 = 4; te: 1 + 2 = 3
+        assertEquals(12, board.score("me", Location.of(8, 7), Location.HORIZONTAL));
+    }
+
+    @Test
+    void wordPremiumMultipliesCrossWord() {
+        Board board = new Board();
+        board.placeWord("at", Location.of(4, 5), Location.HORIZONTAL);
+        // c on a double word: ch is (3 + 4) * 2 = 14 and cat is (3 + 1 + 1) * 2 = 10; h forms no cross word
+        assertEquals(24, board.score("ch", Location.of(4, 4), Location.VERTICAL));
+    }
+
+    @Test
+    void blankScoresNothing() {
+        Board board = new Board();
+        board.placeWord("at", Location.of(7, 7), Location.HORIZONTAL);
+        // mE, with the blank on the double letter: 3 + 0 = 3; am: 1 + 3 = 4; tE: 1 + 0 = 1
+        assertEquals(8, board.score("mE", Location.of(8, 7), Location.HORIZONTAL));
+    }
+
+}
@@ -0,0 +1,111 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardUndoTest {
+
+    /** Describes everything about board that a move can change and that can be read from outside. */
+    private static String state(Board board) {
+        return board + "hands " + board.getHand(0) + " " + board.getHand(1)
+                + " scores " + board.getScore(0) + " " + board.getScore(1)
+                + " to move " + board.getCurrentPlayer() + " passes " + board.getNumberOfPasses()
+                + " bag " + board.getBagSize() + " draws " + board.getDraws()
+                + " hash " + board.getHash() + " " + board.getHashWithHands();
+    }
+
+    /** Returns the move the team AI would make on board. */
+    private static ScrabbleMove choose(Board board) {
+        ScrabbleTeamProjectScrabbleTeamProject ai = new ScrabbleTeamProjectScrabbleTeamProject();
+        ai.setGateKeeper(new GateKeeper(board, board.getCurrentPlayer()));
+        return ai.chooseMove();
+    }
+
+    /** Applies move to board, checks that undoing it restores board exactly, and returns the state after move. */
+    private static String assertUndoes(Board board, ScrabbleMove move) throws IllegalMoveException {
+        String before = state(board);
+        UndoRecord record = board.apply(move);
+        String after = state(board);
+        assertNotEquals(before, after);
+        board.undo(record);
+        assertEquals(before, state(board));
+        return after;
+    }
+
+    @Test
+    void undoRestoresEveryMoveOfAGame() throws IllegalMoveException {
+        Board board = new Board(3);
+        Board reference = new Board(3);
+        while (!board.gameIsOver()) {
+            ScrabbleMove move = choose(board);
+            String after = assertUndoes(board, move);
+            if (board.getBagSize() >= 7) {
+                boolean[] all = new boolean[board.getHand(board.getCurrentPlayer()).size()];
+                Arrays.fill(all, true);
+                assertUndoes(board, new ExchangeTiles(all));
+            }
+            if (move instanceof PlayWord) {
+                PlayWord play = (PlayWord) move;
+                char[] word = play.getWord().toCharArray();
+                String before = state(board);
+                UndoRecord record = board.apply(word, word.length, play.getLocation().getRow(),
+                        play.getLocation().getColumn(), play.getDirection());
+                assertEquals(after, state(board));
+                board.undo(record);
+                assertEquals(before, state(board));
+            }
+            board.apply(move);
+            assertEquals(after, state(board));
+            // The probes must have left the bag in order, so the game goes on as one played without them
+            move.play(reference, reference.getCurrentPlayer());
+            assertEquals(state(reference), state(board));
+        }
+    }
+
+    @Test
+    void undoesInReverseOrder() throws IllegalMoveException {
+        Board board = new Board(4);
+        List<String> states = new ArrayList<>();
+        List<UndoRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10 && !board.gameIsOver(); i++) {
+            states.add(state(board));
+            records.add(board.apply(choose(board)));
+        }
+        for (int i = records.size() - 1; i >= 0; i--) {
+            board.undo(records.get(i));
+            assertEquals(states.get(i), state(board));
+        }
+        assertEquals(state(new Board(4)), state(board));
+    }
+
+    @Test
+    void undoOutOfOrderThrows() throws IllegalMoveException {
+        Board board = new Board(5);
+        UndoRecord first = board.apply(choose(board));
+        board.apply(choose(board));
+        assertThrows(IllegalStateException.class, () -> board.undo(first));
+    }
+
+    @Test
+    void hashDependsOnlyOnPosition() {
+        Board a = new Board();
+        a.placeWord("cat", Location.of(7, 6), Location.HORIZONTAL);
+        a.placeWord("a t", Location.of(6, 7), Location.VERTICAL);
+        Board b = new Board();
+        b.placeWord("t", Location.of(8, 7), Location.HORIZONTAL);
+        b.placeWord("cat", Location.of(7, 6), Location.HORIZONTAL);
+        b.placeWord("a", Location.of(6, 7), Location.HORIZONTAL);
+        assertEquals(a.toString(), b.toString());
+        assertEquals(a.getHash(), b.getHash());
+        Board blank = new Board();
+        blank.placeWord("cAt", Location.of(7, 6), Location.HORIZONTAL);
+        blank.placeWord("a t", Location.of(6, 7), Location.VERTICAL);
+        assertNotEquals(a.getHash(), blank.getHash());
+    }
+
+}
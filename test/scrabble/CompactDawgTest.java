@@ -0,0 +1,58 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactDawgTest {
+
+    private static List<String> words() throws IOException {
+        return Files.readAllLines(Paths.get(Lexicon.WORD_FILE));
+    }
+
+    /** Checks that dawg contains every word, and no prefix or extension of one that is not itself a word. */
+    private static void assertSameWords(List<String> words, CompactDawg dawg) {
+        Set<String> set = new HashSet<>(words);
+        assertEquals(set.size(), dawg.wordCount());
+        for (String word : words) {
+            assertTrue(dawg.contains(word), word);
+            for (int i = 1; i < word.length(); i++) {
+                String prefix = word.substring(0, i);
+                assertEquals(set.contains(prefix), dawg.contains(prefix), prefix);
+            }
+            for (char c = 'a'; c <= 'z'; c += 5) {
+                assertEquals(set.contains(word + c), dawg.contains(word + c), word + c);
+            }
+        }
+    }
+
+    @Test
+    void builtGraphHasExactlyTheWords() throws IOException {
+        List<String> words = words();
+        assertSameWords(words, CompactDawg.build(words));
+    }
+
+    @Test
+    void sharedLexiconHasExactlyTheWords() throws IOException {
+        assertSameWords(words(), Lexicon.get().getDawg());
+    }
+
+    @Test
+    void rejectsNonWords() {
+        CompactDawg dawg = Lexicon.get().getDawg();
+        assertFalse(dawg.contains(""));
+        assertFalse(dawg.contains("a"));
+        assertFalse(dawg.contains("zzzz"));
+        assertFalse(dawg.contains("Cat"));
+        assertFalse(dawg.contains("ca t"));
+        assertTrue(dawg.contains("cat"));
+    }
+
+}
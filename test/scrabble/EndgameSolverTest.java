@@ -0,0 +1,98 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndgameSolverTest {
+
+    private final GaddagMoveGenerator generator = new GaddagMoveGenerator();
+
+    /** Plays the game from seed until the bag is empty and no more than tiles are left in the hands. */
+    private static Board endgame(long seed, int tiles) throws IllegalMoveException {
+        Board board = new Board(seed);
+        ScrabbleTeamProjectScrabbleTeamProject ai
+                = new ScrabbleTeamProjectScrabbleTeamProject(ScrabbleTeamProjectScrabbleTeamProject.Engine.GADDAG);
+        ai.setUsingLeaves(false);
+        while (!board.gameIsOver()
+                && (board.getBagSize() > 0 || board.getHand(0).size() + board.getHand(1).size() > tiles)) {
+            int player = board.getCurrentPlayer();
+            ai.setGateKeeper(new GateKeeper(board, player));
+            ai.chooseMove().play(board, player);
+        }
+        return board;
+    }
+
+    /** Returns the change in the score difference, for the player to move, with best play by both sides. */
+    private int minimax(Board board) throws IllegalMoveException {
+        if (board.gameIsOver()) {
+            return 0;
+        }
+        int player = board.getCurrentPlayer();
+        MoveCollector collector = new MoveCollector();
+        generator.generate(new GateKeeper(board, player), collector);
+        List<ScrabbleMove> moves = new ArrayList<>();
+        for (ScoredMove move : collector.getMoves()) {
+            moves.add(move.getMove());
+        }
+        moves.add(new ExchangeTiles(new boolean[7]));
+        int best = Integer.MIN_VALUE;
+        for (ScrabbleMove move : moves) {
+            int before = board.getScore(player) - board.getScore(1 - player);
+            UndoRecord record = board.apply(move);
+            best = Math.max(best, board.getScore(player) - board.getScore(1 - player) - before - minimax(board));
+            board.undo(record);
+        }
+        return best;
+    }
+
+    @Test
+    void solvesSmallEndgameExactly() throws IllegalMoveException {
+        Board board = endgame(1, 5);
+        assertFalse(board.gameIsOver());
+        assertEquals(0, board.getBagSize());
+        int tiles = board.getHand(0).size() + board.getHand(1).size();
+        assertEquals(5, tiles);
+        EndgameSolver solver = new EndgameSolver(new Incrementalist(), 60_000);
+        solver.solve(board.snapshot().fork(), System.nanoTime() + 60_000_000_000L);
+        assertEquals(minimax(board), solver.getLastValue());
+        // A play and a pass for each tile, and a final pass, is as long as the game can go on
+        assertEquals(2 * tiles + 1, solver.getLastDepth());
+        assertTrue(solver.isLastSolved());
+    }
+
+    /** In this endgame some position after the first move has more than 12 plays. */
+    @Test
+    void capReportsUnsolvedWhenItCutsPlays() throws IllegalMoveException {
+        Board board = endgame(1, 5);
+        int tiles = board.getHand(0).size() + board.getHand(1).size();
+        int exact = minimax(board);
+        EndgameSolver capped = new EndgameSolver(new Incrementalist(), 60_000,
+                ScrabbleTeamProjectScrabbleTeamProject.DEFAULT_ENGINE, 12);
+        capped.solve(board.snapshot().fork(), System.nanoTime() + 60_000_000_000L);
+        assertEquals(2 * tiles + 1, capped.getLastDepth());
+        assertFalse(capped.isLastSolved());
+        // A tight enough cap gets the value wrong, which is why it must not claim to have solved the endgame
+        EndgameSolver tight = new EndgameSolver(new Incrementalist(), 60_000,
+                ScrabbleTeamProjectScrabbleTeamProject.DEFAULT_ENGINE, 1);
+        tight.solve(board.snapshot().fork(), System.nanoTime() + 60_000_000_000L);
+        assertEquals(2 * tiles + 1, tight.getLastDepth());
+        assertNotEquals(exact, tight.getLastValue());
+        assertFalse(tight.isLastSolved());
+    }
+
+    /** The search of this endgame meets no position below the root with more than 12 plays, so the cap cuts nothing. */
+    @Test
+    void capThatCutsNothingStillSolves() throws IllegalMoveException {
+        Board board = endgame(3, 5);
+        EndgameSolver capped = new EndgameSolver(new Incrementalist(), 60_000,
+                ScrabbleTeamProjectScrabbleTeamProject.DEFAULT_ENGINE, 12);
+        capped.solve(board.snapshot().fork(), System.nanoTime() + 60_000_000_000L);
+        assertTrue(capped.isLastSolved());
+        assertEquals(minimax(board), capped.getLastValue());
+    }
+
+}
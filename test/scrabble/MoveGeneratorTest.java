@@ -0,0 +1,131 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Checks each engine against every placement of every ordering of the hand's tiles, tested with checkLegality. */
+class MoveGeneratorTest {
+
+    private static final Location[] DIRECTIONS = {Location.HORIZONTAL, Location.VERTICAL};
+
+    /** Plays moves moves of the game from seed. */
+    private static Board position(long seed, int moves) throws IllegalMoveException {
+        Board board = new Board(seed);
+        ScrabbleTeamProjectScrabbleTeamProject ai = new ScrabbleTeamProjectScrabbleTeamProject();
+        for (int i = 0; i < moves; i++) {
+            int player = board.getCurrentPlayer();
+            ai.setGateKeeper(new GateKeeper(board, player));
+            ai.chooseMove().play(board, player);
+        }
+        return board;
+    }
+
+    /** Returns the moves engine finds for the player to move, as strings from describe. */
+    private static Set<String> generated(Board board, ScrabbleTeamProjectScrabbleTeamProject.Engine engine) {
+        Set<String> result = new HashSet<>();
+        MoveConsumer consumer = (word, length, row, column, direction, score)
+                -> assertTrue(result.add(describe(new String(word, 0, length), row, column, direction, score)));
+        ScrabbleTeamProjectScrabbleTeamProject.createGenerator(engine)
+                .generate(new GateKeeper(board, board.getCurrentPlayer()), consumer);
+        return result;
+    }
+
+    /** Returns every legal move for the player to move, found without a move generator. */
+    private static Set<String> legal(Board board) {
+        Rack hand = board.getHand(board.getCurrentPlayer());
+        assertEquals(0, hand.getCount(Rack.BLANK), "blanks are not tried");
+        Set<String> orders = new HashSet<>();
+        orderings(new Rack(hand), "", orders);
+        Set<String> result = new HashSet<>();
+        for (int row = 0; row < Board.WIDTH; row++) {
+            for (int column = 0; column < Board.WIDTH; column++) {
+                for (Location direction : DIRECTIONS) {
+                    for (String tiles : orders) {
+                        String word = place(board, tiles, row, column, direction);
+                        if (word != null) {
+                            Location location = Location.of(row, column);
+                            int score = board.tryScore(word, location, direction, hand);
+                            if (score >= 0) {
+                                result.add(describe(word, row, column, direction, score));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Adds to orders prefix followed by each sequence of one or more of the tiles in left. */
+    private static void orderings(Rack left, String prefix, Set<String> orders) {
+        for (int slot = 0; slot < Rack.SLOTS; slot++) {
+            if (left.getCount(slot) > 0) {
+                char tile = Rack.tileAt(slot);
+                left.removeTile(tile);
+                orders.add(prefix + tile);
+                orderings(left, prefix + tile, orders);
+                left.addTile(tile);
+            }
+        }
+    }
+
+    /**
+     * Returns tiles laid from row, column in direction, filling the empty squares in order, as PlayWord would take it:
+     * a space for each tile passed over, and any tiles just after the last new one. Returns null if the move would
+     * start just after a tile (so that it is not the whole word) or run off the board.
+     */
+    private static String place(Board board, String tiles, int row, int column, Location direction) {
+        int dr = direction.getRow();
+        int dc = direction.getColumn();
+        if (isTile(board, row - dr, column - dc)) {
+            return null;
+        }
+        StringBuilder word = new StringBuilder();
+        int placed = 0;
+        for (int r = row, c = column; placed < tiles.length() || isTile(board, r, c); r += dr, c += dc) {
+            if (r >= Board.WIDTH || c >= Board.WIDTH) {
+                return null;
+            }
+            if (isTile(board, r, c)) {
+                word.append(' ');
+            } else {
+                word.append(tiles.charAt(placed++));
+            }
+        }
+        return word.toString();
+    }
+
+    private static boolean isTile(Board board, int row, int column) {
+        return row >= 0 && row < Board.WIDTH && column >= 0 && column < Board.WIDTH
+                && CrossChecks.isTile(board.getSquare(row * Board.WIDTH + column));
+    }
+
+    private static String describe(String word, int row, int column, Location direction, int score) {
+        return "'" + word + "' at " + row + ", " + column + (direction == Location.HORIZONTAL ? " across" : " down")
+                + " for " + score;
+    }
+
+    private static void assertEnginesFindLegalMoves(Board board) {
+        Set<String> legal = legal(board);
+        assertFalse(legal.isEmpty());
+        for (ScrabbleTeamProjectScrabbleTeamProject.Engine engine
+                : ScrabbleTeamProjectScrabbleTeamProject.Engine.values()) {
+            assertEquals(legal, generated(board, engine), engine.toString());
+        }
+    }
+
+    @Test
+    void findsEveryFirstMove() throws IllegalMoveException {
+        assertEnginesFindLegalMoves(position(2, 0));
+    }
+
+    @Test
+    void findsEveryMoveInMidgame() throws IllegalMoveException {
+        assertEnginesFindLegalMoves(position(2, 6));
+    }
+
+}
@@ -0,0 +1,122 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelMoveGeneratorTest {
+
+    /**
+     * Searches lines slowly, so that some are still running when a generation is stopped, and notes whether prepare
+     * was ever called while a line was being searched.
+     */
+    private static final class CheckedGenerator implements LineMoveGenerator {
+
+        private final LineMoveGenerator generator;
+
+        private final AtomicInteger searching = new AtomicInteger();
+
+        private final AtomicBoolean overlapped = new AtomicBoolean();
+
+        CheckedGenerator(LineMoveGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void prepare(GateKeeper gateKeeper, Rack rack) {
+            if (searching.get() != 0) {
+                overlapped.set(true);
+            }
+            generator.prepare(gateKeeper, rack);
+        }
+
+        @Override
+        public Location getDirection(int line) {
+            return generator.getDirection(line);
+        }
+
+        @Override
+        public void searchLine(int line, MoveConsumer consumer) {
+            searching.incrementAndGet();
+            try {
+                Thread.sleep(2);
+                generator.searchLine(line, consumer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                generator.searchLine(line, consumer); // As a generator would, which never checks for interrupts
+            } finally {
+                searching.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void generate(GateKeeper gateKeeper, MoveConsumer consumer) {
+            generator.generate(gateKeeper, consumer);
+        }
+
+    }
+
+    /** Plays moves moves of the game from seed and returns a GateKeeper for the player to move. */
+    private static GateKeeper position(long seed, int moves) throws IllegalMoveException {
+        Board board = new Board(seed);
+        ScrabbleTeamProjectScrabbleTeamProject ai = new ScrabbleTeamProjectScrabbleTeamProject();
+        for (int i = 0; i < moves; i++) {
+            int player = board.getCurrentPlayer();
+            ai.setGateKeeper(new GateKeeper(board, player));
+            ai.chooseMove().play(board, player);
+        }
+        return new GateKeeper(board, board.getCurrentPlayer());
+    }
+
+    /** Returns a consumer that adds a description of each move to moves. */
+    private static MoveConsumer into(List<String> moves) {
+        return (word, length, row, column, direction, score)
+                -> moves.add("'" + new String(word, 0, length) + "' at " + row + ", " + column + " "
+                        + (direction == Location.HORIZONTAL ? "across" : "down") + " for " + score);
+    }
+
+    @Test
+    void generationAfterStoppingMatchesSequential() throws IllegalMoveException {
+        GateKeeper[] positions = {position(2, 6), position(8, 10), position(11, 3)};
+        for (ScrabbleTeamProjectScrabbleTeamProject.Engine engine
+                : ScrabbleTeamProjectScrabbleTeamProject.Engine.values()) {
+            List<List<String>> expected = new ArrayList<>();
+            LineMoveGenerator sequential = ScrabbleTeamProjectScrabbleTeamProject.createGenerator(engine);
+            for (GateKeeper position : positions) {
+                List<String> moves = new ArrayList<>();
+                sequential.generate(position, into(moves));
+                expected.add(moves);
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                CheckedGenerator checked
+                        = new CheckedGenerator(ScrabbleTeamProjectScrabbleTeamProject.createGenerator(engine));
+                MoveGenerator parallel = new ParallelMoveGenerator(checked, executor);
+                for (int i = 0; i < 30; i++) {
+                    // Stop after the first i % 3 lines, while other lines are still being searched
+                    int[] asked = new int[1];
+                    int lines = i % 3;
+                    List<String> ignored = new ArrayList<>();
+                    GateKeeper position = positions[i % positions.length];
+                    assertFalse(parallel.generate(position, into(ignored), () -> asked[0]++ >= lines));
+                    // Then at once search another position
+                    int next = (i + 1) % positions.length;
+                    List<String> moves = new ArrayList<>();
+                    assertTrue(parallel.generate(positions[next], into(moves), () -> false));
+                    assertEquals(expected.get(next), moves, engine + ", round " + i);
+                }
+                assertFalse(checked.overlapped.get(), "prepared while lines were being searched");
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+}
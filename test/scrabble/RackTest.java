@@ -0,0 +1,65 @@
+package scrabble;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RackTest {
+
+    private static Rack rack(String tiles) {
+        Rack result = new Rack();
+        for (char tile : tiles.toCharArray()) {
+            result.addTile(tile);
+        }
+        return result;
+    }
+
+    @Test
+    void suppliesRepeatedLettersOnlyAsOftenAsHeld() {
+        Rack hand = rack("eelrtt_");
+        assertTrue(hand.canSupply("letter"));
+        assertFalse(hand.canSupply("lettere"));
+        assertTrue(hand.canSupply("l tter"));
+        assertTrue(rack("yzz").canSupply("zyz"));
+        assertFalse(rack("yzz").canSupply("zzyz"));
+    }
+
+    @Test
+    void suppliesUpperCaseFromBlanks() {
+        Rack hand = rack("at_");
+        assertTrue(hand.canSupply("Cat"));
+        assertFalse(hand.canSupply("CAt"));
+        assertTrue(rack("z__").canSupply("ZzZ"));
+        assertFalse(rack("z__").canSupply("ZzZY"));
+    }
+
+    @Test
+    void rejectsCharactersNoTileSupplies() {
+        Rack hand = rack("act_");
+        assertFalse(hand.canSupply("a1"));
+        assertFalse(hand.canSupply("c-t"));
+        assertFalse(hand.canSupply("ca\u00e9"));
+    }
+
+    @Test
+    void suppliesWordsLongerThanTheBoard() {
+        Rack hand = rack("aaaaaaaaaaaaaaaaaaaa");
+        assertTrue(hand.canSupply("aaaaaaaaaaaaaaaaaaaa"));
+        assertFalse(hand.canSupply("aaaaaaaaaaaaaaaaaaaaa"));
+        assertTrue(hand.canSupply("aaaaaaaaaaaaaaa"));
+        assertFalse(rack("aaaaaaaaaaaaaa").canSupply("aaaaaaaaaaaaaaa"));
+    }
+
+    @Test
+    void canSupplyChangesNothing() {
+        Rack hand = rack("eelrtt_");
+        long hash = hand.getHash();
+        hand.canSupply("letter");
+        hand.canSupply("lettere");
+        assertEquals(Arrays.asList('e', 'e', 'l', 'r', 't', 't', '_'), hand);
+        assertEquals(hash, hand.getHash());
+    }
+
+}